@@ -0,0 +1,134 @@
+package su.ch
+
+import su.ch.annotation.Experimental
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CompletionStage
+import java.util.concurrent.Executor
+import java.util.concurrent.Executors
+import java.util.concurrent.ForkJoinPool
+import java.util.function.BiFunction
+import java.util.function.Function
+import java.util.function.Supplier
+
+/**
+ * An asynchronous [Try]. Actions and recoveries are recorded in the same way, but each action
+ * runs as a separate task on an [Executor], so the calling thread is not held while they run.
+ * The outcome is available from [toCompletionStage] as a `Try`, which is either successful or a
+ * [Try.Failure].
+ *
+ * # Example Usage
+ *
+ * ```
+ * AsyncTry.with(request, executor)
+ *         .doAction(Function { it.fetch() })
+ *         .orRecover(BiFunction { e, r -> r.abandon(e) })
+ *         .toCompletionStage()
+ *         .thenAccept { outcome -> respond(outcome.isSuccess()) }
+ * ```
+ */
+@Experimental
+sealed class AsyncTry<A>(protected val attempt: Try<A>, protected val executor: Executor) {
+
+    // the outcome, once the actions have been started
+    @Volatile private var outcome: CompletableFuture<Try<A>>? = null
+
+    fun doAction(function: Function<A, *>): Success.Success0<A> = Success.Success0(attempt.doAction(function), executor)
+
+    /**
+     * Like [doAction], but `function` is retried as `policy` allows before the stage fails. If it
+     * is given up, the recoveries receive a [RetryPolicy.Exhausted].
+     */
+    fun doAction(function: Function<A, *>, policy: RetryPolicy): Success.Success0<A> =
+            Success.Success0(attempt.doAction(function, policy), executor)
+
+    /**
+     * Like [doAction], but `function` is run speculatively, as `hedge` describes. The attempts
+     * run on the executor of `hedge`, while this stage waits for them on the executor of this
+     * `AsyncTry`.
+     */
+    fun doAction(function: Function<A, *>, hedge: Hedge): Success.Success0<A> =
+            Success.Success0(attempt.doAction(function, hedge), executor)
+
+    /**
+     * Like [doAction], but `function` is only run if `breaker` allows. If it doesn't, the stage
+     * fails with a [CircuitBreaker.Open].
+     */
+    fun doAction(function: Function<A, *>, breaker: CircuitBreaker): Success.Success0<A> =
+            Success.Success0(attempt.doAction(function, breaker), executor)
+
+    /**
+     * Like [doAction], but `function` is only run within the limit of `limiter`. If it isn't,
+     * the stage fails with a [ConcurrencyLimiter.Rejected].
+     */
+    fun doAction(function: Function<A, *>, limiter: ConcurrencyLimiter): Success.Success0<A> =
+            Success.Success0(attempt.doAction(function, limiter), executor)
+
+    fun doAttempt(function: Function<A, out Either<*, *>>): Success.Success0<A> = Success.Success0(attempt.doAttempt(function), executor)
+
+    /**
+     * Starts the actions, if they haven't been started already, and returns the outcome. Each
+     * call returns a new stage depending on the outcome, so completing one doesn't change what
+     * the others see.
+     */
+    fun toCompletionStage(): CompletionStage<Try<A>> =
+            (outcome ?: synchronized(this) {
+                outcome ?: start().also { outcome = it }
+            }).thenApply(Function.identity())
+
+    private fun start(): CompletableFuture<Try<A>> {
+        val success: Try<A> = Try.with(attempt.get())
+        var stage = CompletableFuture.completedFuture(success)
+        var n = 0
+        for (i in attempt.functions.indices) {
+            if (attempt.functions[i] is Either.Right) {
+                val action = n++
+                stage = stage.thenCompose<Try<A>> { previous ->
+                    when (previous) {
+                        is Try.Failure -> CompletableFuture.completedFuture<Try<A>>(previous)
+                        else -> CompletableFuture.supplyAsync(Supplier<Try<A>> { attempt.attempt(i, action) ?: success }, executor)
+                    }
+                }
+            }
+        }
+        return stage
+    }
+
+    sealed class Success<A>(attempt: Try<A>, executor: Executor) : AsyncTry<A>(attempt, executor) {
+
+        class Success0<A>(attempt: Try.Success.Success0<A>, executor: Executor) : Success<A>(attempt, executor) {
+
+            fun orRecover(function: BiFunction<Exception, A, *>): Success1<A> =
+                    Success1((attempt as Try.Success.Success0<A>).orRecover(function), executor)
+        }
+
+        class Success1<A>(attempt: Try.Success.Success1<A>, executor: Executor) : Success<A>(attempt, executor)
+    }
+
+    companion object {
+
+        private val virtualThreads: Maybe<Executor> by lazy {
+            try {
+                Maybe.Just(Executors::class.java.getMethod("newVirtualThreadPerTaskExecutor").invoke(null) as Executor)
+            } catch (e: ReflectiveOperationException) {
+                Maybe.Nothing<Executor>()
+            }
+        }
+
+        /**
+         * Returns a new [AsyncTry] whose actions will run on `executor`.
+         */
+        @JvmStatic fun <A> with(value: A, executor: Executor): Success<A> =
+                Success.Success0(Try.Success.Success0(value), executor)
+
+        /**
+         * Returns a new [AsyncTry] whose actions will run on the [ForkJoinPool.commonPool].
+         */
+        @JvmStatic fun <A> with(value: A): Success<A> = with(value, ForkJoinPool.commonPool())
+
+        /**
+         * Returns an [Executor] which runs each task on a new virtual thread, or [Maybe.Nothing]
+         * if the runtime doesn't support virtual threads.
+         */
+        @JvmStatic fun virtualThreadExecutor(): Maybe<Executor> = virtualThreads
+    }
+}
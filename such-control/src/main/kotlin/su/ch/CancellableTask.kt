@@ -0,0 +1,58 @@
+package su.ch
+
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * A task which can be cancelled from any thread, used by [Zip] and [Hedge] to stop the tasks
+ * whose results are no longer needed. Unlike a [java.util.concurrent.FutureTask], cancelling it
+ * only interrupts a thread which is still running `body`: a task cancelled by its own thread, or
+ * while `body` is returning, clears the interrupt before the thread goes back to its executor,
+ * so that it can't leak into an unrelated task.
+ */
+internal class CancellableTask(private val body: Runnable) : Runnable {
+
+    private val state = AtomicInteger(NEW)
+    @Volatile private var runner: Thread? = null
+
+    override fun run() {
+        runner = Thread.currentThread()
+        if (!state.compareAndSet(NEW, RUNNING)) {
+            runner = null
+            return
+        }
+        try {
+            body.run()
+        } finally {
+            if (!state.compareAndSet(RUNNING, DONE)) {
+                // cancelled as `body` returned; wait for the interrupt meant for it, and clear it
+                while (state.get() == INTERRUPTING) Thread.yield()
+                if (state.get() == INTERRUPTED) Thread.interrupted()
+            }
+            runner = null
+        }
+    }
+
+    /**
+     * Stops the task from running if it hasn't started, and interrupts it if it is running on
+     * another thread.
+     */
+    fun cancel() {
+        if (state.compareAndSet(NEW, CANCELLED)) return
+        val thread = runner
+        if (thread === Thread.currentThread()) {
+            state.compareAndSet(RUNNING, CANCELLED)
+        } else if (state.compareAndSet(RUNNING, INTERRUPTING)) {
+            thread?.interrupt()
+            state.set(INTERRUPTED)
+        }
+    }
+
+    private companion object {
+        const val NEW = 0
+        const val RUNNING = 1
+        const val DONE = 2
+        const val CANCELLED = 3
+        const val INTERRUPTING = 4
+        const val INTERRUPTED = 5
+    }
+}
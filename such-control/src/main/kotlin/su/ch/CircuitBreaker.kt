@@ -0,0 +1,243 @@
+package su.ch
+
+import su.ch.annotation.Experimental
+import java.time.Clock
+import java.time.Duration
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicReference
+import java.util.concurrent.atomic.AtomicReferenceArray
+import java.util.concurrent.atomic.LongAdder
+import java.util.function.Function
+import javax.annotation.concurrent.ThreadSafe
+
+/**
+ * Stops a [Try] from calling a service which is failing. A breaker is [State.CLOSED] at first,
+ * and runs actions as usual while counting their failures, and those which are slow, over a
+ * rolling window. When the proportion of either is too high, the breaker opens, and for a while
+ * actions fail at once with an [Open] signal, which goes straight to the recoveries. After that
+ * it is half open: a few trial actions are run, and if they all succeed the breaker closes
+ * again, otherwise it opens again.
+ *
+ * The window is divided into buckets which are replaced as it rolls. Nothing is locked while
+ * an action runs or its outcome is counted. Time is read from [System.nanoTime], or from the
+ * [Clock] given to [withClock]. One breaker should be shared by every pipeline calling the same
+ * service.
+ *
+ * # Example Usage
+ *
+ * ```
+ * val breaker = CircuitBreaker.of(0.5, Duration.ofSeconds(10), Duration.ofSeconds(30))
+ *         .withSlowCalls(Duration.ofMillis(500), 0.8)
+ *
+ * Try.with(request)
+ *         .doAction(Function { it.fetch() }, breaker)
+ *         .orRecover(BiFunction { e, r -> r.fromCache() })
+ * ```
+ */
+@ThreadSafe @Experimental
+class CircuitBreaker private constructor(
+        private val failureRate: Double,
+        private val window: Duration,
+        private val openFor: Duration,
+        private val slowCall: Duration?,
+        private val slowCallRate: Double,
+        private val minimumCalls: Int,
+        private val halfOpenCalls: Int,
+        private val clock: Clock?) {
+
+    enum class State { CLOSED, OPEN, HALF_OPEN }
+
+    private val origin = ticks()
+    private val bucketNanos = Math.max(1, window.toNanos() / BUCKETS)
+    private val buckets = AtomicReferenceArray<Bucket>(BUCKETS)
+    private val status = AtomicReference(Status(State.CLOSED, 0))
+    private val rejected = LongAdder()
+    private val open = Open(this)
+
+    /**
+     * Returns a breaker like this one, which also opens when at least `rate` of the actions in
+     * the window take `threshold` or longer.
+     */
+    fun withSlowCalls(threshold: Duration, rate: Double): CircuitBreaker =
+            CircuitBreaker(failureRate, window, openFor, threshold, rate, minimumCalls, halfOpenCalls, clock)
+
+    /**
+     * Returns a breaker like this one, which doesn't open until at least `minimumCalls` actions
+     * have been counted in the window.
+     */
+    fun withMinimumCalls(minimumCalls: Int): CircuitBreaker =
+            CircuitBreaker(failureRate, window, openFor, slowCall, slowCallRate, minimumCalls, halfOpenCalls, clock)
+
+    /**
+     * Returns a breaker like this one, which runs `halfOpenCalls` trial actions when half open.
+     */
+    fun withHalfOpenCalls(halfOpenCalls: Int): CircuitBreaker {
+        require(halfOpenCalls > 0) { "halfOpenCalls must be positive: $halfOpenCalls" }
+        return CircuitBreaker(failureRate, window, openFor, slowCall, slowCallRate, minimumCalls, halfOpenCalls, clock)
+    }
+
+    /**
+     * Returns a breaker like this one, which reads the time from `clock` rather than from
+     * [System.nanoTime]. The window, the open period and slow calls are all measured by `clock`.
+     */
+    fun withClock(clock: Clock): CircuitBreaker =
+            CircuitBreaker(failureRate, window, openFor, slowCall, slowCallRate, minimumCalls, halfOpenCalls, clock)
+
+    /**
+     * Returns the current state of this breaker. An open breaker only becomes half open when an
+     * action is run after it has been open for long enough.
+     */
+    fun state(): State = status.get().state
+
+    /**
+     * Returns the number of actions which failed because this breaker was open.
+     */
+    fun rejected(): Long = rejected.sum()
+
+    /**
+     * Returns the proportion of the actions counted in the window which failed.
+     */
+    fun failureRate(): Double = window().let { if (it.calls == 0) 0.0 else it.failures.toDouble() / it.calls }
+
+    /**
+     * Returns the proportion of the actions counted in the window which were slow.
+     */
+    fun slowCallRate(): Double = window().let { if (it.calls == 0) 0.0 else it.slow.toDouble() / it.calls }
+
+    /**
+     * Runs `function` on `value` if this breaker allows, and counts the outcome.
+     */
+    internal fun <A> run(function: Function<A, *>, value: A): Any? {
+        val status = acquire() ?: run {
+            rejected.increment()
+            return open
+        }
+        val start = now()
+        val result = try {
+            function.apply(value)
+        } catch (e: Throwable) {
+            // an Error is counted too, or a half open breaker would be left waiting for its trial
+            record(status, Duration.ofNanos(now() - start), true)
+            throw e
+        }
+        record(status, Duration.ofNanos(now() - start), result is Try.Signal)
+        return result
+    }
+
+    // returns the status under which an action may run, or null if it may not
+    private fun acquire(): Status? {
+        while (true) {
+            val status = status.get()
+            when (status.state) {
+                State.CLOSED -> return status
+                State.OPEN -> {
+                    val now = now()
+                    if (now - status.since < openFor.toNanos()) return null
+                    this.status.compareAndSet(status, Status(State.HALF_OPEN, now))
+                }
+                State.HALF_OPEN -> return if (status.trials.incrementAndGet() <= halfOpenCalls) status else null
+            }
+        }
+    }
+
+    private fun record(status: Status, elapsed: Duration, failed: Boolean) {
+        val slow = slowCall != null && elapsed >= slowCall
+        when (status.state) {
+            State.CLOSED -> {
+                bucket(now()).record(failed, slow)
+                if ((failed || slow) && tripped(window())) {
+                    this.status.compareAndSet(status, Status(State.OPEN, now()))
+                }
+            }
+            State.HALF_OPEN -> when {
+                failed || slow -> this.status.compareAndSet(status, Status(State.OPEN, now()))
+                status.successes.incrementAndGet() == halfOpenCalls ->
+                    if (this.status.compareAndSet(status, Status(State.CLOSED, now()))) {
+                        // start afresh, rather than from the outcomes which opened the breaker
+                        for (i in 0 until BUCKETS) buckets.set(i, null)
+                    }
+            }
+            State.OPEN -> {}
+        }
+    }
+
+    private fun tripped(counts: Counts): Boolean =
+            counts.calls >= Math.max(1, minimumCalls) &&
+                    (counts.failures >= failureRate * counts.calls || counts.slow >= slowCallRate * counts.calls)
+
+    // sums the buckets in the window
+    private fun window(): Counts {
+        val epoch = now() / bucketNanos
+        val oldest = epoch - BUCKETS + 1
+        val counts = Counts()
+        for (i in 0 until BUCKETS) {
+            val bucket = buckets.get(i) ?: continue
+            if (bucket.epoch in oldest..epoch) {
+                counts.calls += bucket.calls.get()
+                counts.failures += bucket.failures.get()
+                counts.slow += bucket.slow.get()
+            }
+        }
+        return counts
+    }
+
+    private fun bucket(now: Long): Bucket {
+        val epoch = now / bucketNanos
+        val i = (epoch % BUCKETS).toInt()
+        while (true) {
+            val bucket = buckets.get(i)
+            if (bucket != null && bucket.epoch >= epoch) return bucket
+            val fresh = Bucket(epoch)
+            if (buckets.compareAndSet(i, bucket, fresh)) return fresh
+        }
+    }
+
+    private fun now(): Long = ticks() - origin
+
+    private fun ticks(): Long {
+        if (clock == null) return System.nanoTime()
+        val instant = clock.instant()
+        return instant.epochSecond * 1_000_000_000 + instant.nano
+    }
+
+    /**
+     * The failure of an action which wasn't run because `breaker` was open.
+     */
+    class Open internal constructor(val breaker: CircuitBreaker) : Try.Signal("circuit breaker is open")
+
+    private class Status(val state: State, val since: Long) {
+        val trials = AtomicInteger()
+        val successes = AtomicInteger()
+    }
+
+    private class Bucket(val epoch: Long) {
+        val calls = AtomicInteger()
+        val failures = AtomicInteger()
+        val slow = AtomicInteger()
+
+        fun record(failed: Boolean, slow: Boolean) {
+            calls.incrementAndGet()
+            if (failed) failures.incrementAndGet()
+            if (slow) this.slow.incrementAndGet()
+        }
+    }
+
+    private class Counts {
+        var calls = 0
+        var failures = 0
+        var slow = 0
+    }
+
+    companion object {
+
+        private const val BUCKETS = 10
+
+        /**
+         * Returns a closed breaker which opens for `openFor` when at least `failureRate` of the
+         * actions in the last `window` fail.
+         */
+        @JvmStatic
+        fun of(failureRate: Double, window: Duration, openFor: Duration): CircuitBreaker =
+                CircuitBreaker(failureRate, window, openFor, null, 1.0, 10, 3, null)
+    }
+}
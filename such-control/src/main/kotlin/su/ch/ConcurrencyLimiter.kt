@@ -0,0 +1,225 @@
+package su.ch
+
+import su.ch.annotation.Experimental
+import su.ch.time.Stopwatch
+import java.time.Duration
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.atomic.LongAdder
+import java.util.concurrent.locks.ReentrantLock
+import java.util.function.Function
+import javax.annotation.concurrent.ThreadSafe
+
+/**
+ * Limits how many actions of a [Try] run at once, adjusting the limit from their latency, as
+ * measured with a [Stopwatch]. An action over the limit fails at once with a [Rejected] signal,
+ * or if the limiter was made with [withQueueing], waits for a while for another to finish.
+ *
+ * The limit is adjusted by one of two algorithms:
+ *
+ * - [aimd] raises the limit by one after each action which succeeds within a latency threshold
+ *   while the limit is in use, and cuts it by a tenth after each which fails or is slower.
+ * - [gradient] compares the latency of each action with a long-term average. While they are
+ *   close the limit grows by about its square root; as latency rises above the average,
+ *   signalling a queue building up downstream, it shrinks in proportion.
+ *
+ * Starting and finishing an action takes no lock unless actions are waiting. One limiter should
+ * be shared by every pipeline calling the same service.
+ *
+ * # Example Usage
+ *
+ * ```
+ * val limiter = ConcurrencyLimiter.gradient(20, 200).withQueueing(Duration.ofMillis(50))
+ *
+ * Try.with(request)
+ *         .doAction(Function { it.fetch() }, limiter)
+ *         .orRecover(BiFunction { e, r -> r.shed(e) })
+ * ```
+ */
+@ThreadSafe @Experimental
+class ConcurrencyLimiter private constructor(
+        private val algorithm: Algorithm,
+        private val initial: Int,
+        private val max: Int,
+        private val maxWait: Duration?) {
+
+    // the limit, as the bits of a double, so that it can grow by fractions
+    private val limit = AtomicLong(java.lang.Double.doubleToRawLongBits(initial.toDouble()))
+    private val inFlight = AtomicInteger()
+    private val rejected = LongAdder()
+    private val rejection = Rejected(this)
+
+    // only used by actions waiting for others to finish
+    private val waiters = AtomicInteger()
+    private val lock = ReentrantLock()
+    private val released = lock.newCondition()
+
+    /**
+     * Returns a new limiter like this one, except that an action over the limit waits up to
+     * `maxWait` for another to finish before it is rejected.
+     */
+    fun withQueueing(maxWait: Duration): ConcurrencyLimiter = ConcurrencyLimiter(algorithm.copy(), initial, max, maxWait)
+
+    /**
+     * Returns the current limit.
+     */
+    fun limit(): Int = currentLimit().toInt()
+
+    /**
+     * Returns the number of actions now running.
+     */
+    fun inFlight(): Int = inFlight.get()
+
+    /**
+     * Returns the number of actions rejected.
+     */
+    fun rejected(): Long = rejected.sum()
+
+    /**
+     * Runs `function` on `value` if the limit allows, and adjusts the limit from its latency.
+     */
+    internal fun <A> run(function: Function<A, *>, value: A): Any? {
+        if (!acquire()) {
+            rejected.increment()
+            return rejection
+        }
+        val stopwatch = Stopwatch.runningStopwatch()
+        var failed = true
+        try {
+            val result = function.apply(value)
+            failed = result is Try.Signal
+            return result
+        } finally {
+            val running = inFlight.getAndDecrement()
+            adjust(stopwatch.elapsed().toNanos(), running, failed)
+            if (waiters.get() > 0) {
+                lock.lock()
+                try {
+                    released.signalAll()
+                } finally {
+                    lock.unlock()
+                }
+            }
+        }
+    }
+
+    private fun tryAcquire(): Boolean {
+        while (true) {
+            val running = inFlight.get()
+            if (running >= limit()) return false
+            if (inFlight.compareAndSet(running, running + 1)) return true
+        }
+    }
+
+    private fun acquire(): Boolean {
+        if (tryAcquire()) return true
+        val maxWait = maxWait ?: return false
+        val stopwatch = Stopwatch.runningStopwatch()
+        waiters.incrementAndGet()
+        lock.lock()
+        try {
+            while (!tryAcquire()) {
+                val remaining = maxWait.toNanos() - stopwatch.elapsed().toNanos()
+                if (remaining <= 0) return false
+                released.awaitNanos(remaining)
+            }
+            return true
+        } catch (e: InterruptedException) {
+            Thread.currentThread().interrupt()
+            return false
+        } finally {
+            lock.unlock()
+            waiters.decrementAndGet()
+        }
+    }
+
+    private fun currentLimit(): Double = java.lang.Double.longBitsToDouble(limit.get())
+
+    private fun adjust(nanos: Long, running: Int, failed: Boolean) {
+        while (true) {
+            val bits = limit.get()
+            val current = java.lang.Double.longBitsToDouble(bits)
+            val next = Math.max(1.0, Math.min(max.toDouble(), algorithm.adjust(current, nanos, running, failed)))
+            if (next == current || limit.compareAndSet(bits, java.lang.Double.doubleToRawLongBits(next))) return
+        }
+    }
+
+    /**
+     * The failure of an action which wasn't run because `limiter` was at its limit.
+     */
+    class Rejected internal constructor(val limiter: ConcurrencyLimiter) : Try.Signal("concurrency limit reached")
+
+    private abstract class Algorithm {
+
+        // the limit following an action which took `nanos` with `running` actions in flight
+        abstract fun adjust(limit: Double, nanos: Long, running: Int, failed: Boolean): Double
+
+        // a new instance, without the state of this one
+        abstract fun copy(): Algorithm
+    }
+
+    private class Aimd(private val threshold: Long) : Algorithm() {
+
+        override fun adjust(limit: Double, nanos: Long, running: Int, failed: Boolean): Double = when {
+            failed || nanos > threshold -> limit * 0.9
+            // only grow while the limit is in use
+            running * 2 >= limit -> limit + 1
+            else -> limit
+        }
+
+        override fun copy(): Algorithm = Aimd(threshold)
+    }
+
+    private class Gradient : Algorithm() {
+
+        // the exponential moving average of latency, as the bits of a double
+        private val average = AtomicLong(java.lang.Double.doubleToRawLongBits(Double.NaN))
+
+        override fun adjust(limit: Double, nanos: Long, running: Int, failed: Boolean): Double {
+            if (failed) return limit * 0.9
+            val average = average(nanos.toDouble())
+            val gradient = Math.max(0.5, Math.min(1.0, tolerance * average / Math.max(1L, nanos)))
+            val target = limit * gradient + Math.sqrt(limit)
+            // don't grow while the limit isn't in use
+            if (target > limit && running * 2 < limit) return limit
+            return limit * (1 - smoothing) + target * smoothing
+        }
+
+        private fun average(sample: Double): Double {
+            while (true) {
+                val bits = average.get()
+                val current = java.lang.Double.longBitsToDouble(bits)
+                val next = if (current.isNaN()) sample else current + (sample - current) * decay
+                if (average.compareAndSet(bits, java.lang.Double.doubleToRawLongBits(next))) return next
+            }
+        }
+
+        override fun copy(): Algorithm = Gradient()
+
+        companion object {
+            // latency up to this multiple of the average doesn't shrink the limit
+            private const val tolerance = 1.5
+            private const val smoothing = 0.2
+            private const val decay = 0.01
+        }
+    }
+
+    companion object {
+
+        /**
+         * Returns a limiter which starts at `initial` and grows by one for each action taking no
+         * longer than `threshold`, up to `max`, and falls by a tenth for each other action.
+         */
+        @JvmStatic
+        fun aimd(initial: Int, max: Int, threshold: Duration): ConcurrencyLimiter =
+                ConcurrencyLimiter(Aimd(threshold.toNanos()), initial, max, null)
+
+        /**
+         * Returns a limiter which starts at `initial` and adjusts to the gradient of latency, up
+         * to `max`.
+         */
+        @JvmStatic
+        fun gradient(initial: Int, max: Int): ConcurrencyLimiter = ConcurrencyLimiter(Gradient(), initial, max, null)
+    }
+}
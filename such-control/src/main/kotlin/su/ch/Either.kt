@@ -9,7 +9,19 @@ import su.ch.Maybe.Nothing
 import su.ch.annotation.Beta
 import su.ch.annotation.Pure
 import su.ch.framework.Monad
+import su.ch.framework.Trampoline
+import java.util.Spliterator
+import java.util.concurrent.CompletionStage
+import java.util.concurrent.Executor
+import java.util.concurrent.ForkJoinPool
+import java.util.function.BiConsumer
+import java.util.function.BiFunction
+import java.util.function.BinaryOperator
+import java.util.function.Consumer
 import java.util.function.Function
+import java.util.function.Predicate
+import java.util.function.Supplier
+import java.util.stream.Collector
 
 /**
  * The [Either] type represents values with two possibilities: a value of type `Either` is
@@ -30,6 +42,9 @@ sealed class Either<L, R> constructor(val error: L, value: R) : Monad<R, Either<
      */
     class Left<L, R>(error: L) : Either<L, R>(error, Unit.Unit as R) {
 
+        override fun <V> flatMapLater(mapper: Function<R, out Trampoline<Monad<V, *>>>): Trampoline<Either<L, R>> =
+                Trampoline.done(this)
+
         override fun toString(): String =
                 ToString(this)
                         .addValue(error)
@@ -53,6 +68,65 @@ sealed class Either<L, R> constructor(val error: L, value: R) : Monad<R, Either<
          */
         @JvmStatic fun <L, R> Right(value: R): Either<L, R> = Either.Right(value)
 
+        /**
+         * Returns a [Right] of the values of `eithers`, in order, or the first [Left] among
+         * them. Stops at the first `Left`.
+         */
+        @JvmStatic fun <L, R> sequence(eithers: Collection<Either<L, R>>): Either<L, List<R>> =
+                traverse(eithers, Function { it })
+
+        /**
+         * Like [sequence], but the elements of `eithers` are checked in parallel on `pool`.
+         */
+        @JvmStatic fun <L, R> sequence(eithers: Collection<Either<L, R>>, pool: ForkJoinPool): Either<L, List<R>> =
+                traverse(eithers, Function { it }, pool)
+
+        /**
+         * Applies `mapper` to each of `items`, in order, and returns a [Right] of the values of
+         * the results, or the first of them which is a [Left]. Stops at the first `Left`.
+         */
+        @JvmStatic fun <A, L, R> traverse(items: Collection<A>, mapper: Function<in A, out Either<L, R>>): Either<L, List<R>> =
+                toEither(Traversal.sequential(items, mapper, isLeft))
+
+        /**
+         * Like [traverse], but `mapper` is applied in parallel on `pool`. Once a `Left` is
+         * found, the items after it which haven't been reached are skipped. The `Left` returned
+         * is still the first in order.
+         */
+        @JvmStatic fun <A, L, R> traverse(items: Collection<A>, mapper: Function<in A, out Either<L, R>>, pool: ForkJoinPool): Either<L, List<R>> =
+                toEither(Traversal.parallel(items, mapper, isLeft, pool))
+
+        /**
+         * Runs `a` and `b` at the same time on `executor`, and completes with a [Right] of
+         * `combiner` applied to their values, or with a [Left] as soon as either of them
+         * returns one.
+         */
+        @JvmStatic fun <L, A, B, C> zipPar(
+                a: Supplier<out Either<L, A>>,
+                b: Supplier<out Either<L, B>>,
+                combiner: BiFunction<in A, in B, out C>,
+                executor: Executor): CompletionStage<Either<L, C>> =
+                mapN(listOf(a, b) as List<Supplier<out Either<L, Any?>>>, Function { values -> combiner.apply(values[0] as A, values[1] as B) }, executor)
+
+        /**
+         * Runs each of `suppliers` at the same time on `executor`, and completes with a [Right]
+         * of `combiner` applied to their values, in order, or with a [Left] as soon as any of
+         * them returns one. The suppliers still waiting to run are then cancelled, and those
+         * running are interrupted.
+         */
+        @JvmStatic fun <L, A, B> mapN(
+                suppliers: List<Supplier<out Either<L, out A>>>,
+                combiner: Function<in List<@JvmSuppressWildcards A>, out B>,
+                executor: Executor): CompletionStage<Either<L, B>> =
+                Zip.zip(suppliers, isLeft, executor).thenApply<Either<L, B>> { zipped ->
+                    if (zipped is Left<*, *>) zipped as Either<L, B> else Right(combiner.apply(zipped as List<A>))
+                }
+
+        private val isLeft = Predicate<Monad<*, *>> { it is Left<*, *> }
+
+        private fun <L, R> toEither(traversed: Any): Either<L, List<R>> =
+                if (traversed is Left<*, *>) traversed as Either<L, List<R>> else Right(traversed as List<R>)
+
         /**
          * Partitions a [Collection] of [Either] into two lists. All the [Left] elements are
          * extracted, in order, to the left branch of the output [Pair]. Similarly the [Right]
@@ -66,16 +140,16 @@ sealed class Either<L, R> constructor(val error: L, value: R) : Monad<R, Either<
          * ```
          */
         @JvmStatic @Pure
-        fun partition(eithers: Collection<Either<*, *>>): Pair<List<Left<*, *>>, List<Right<*, *>>> =
-                Pair(lefts(eithers), rights(eithers))
-
-        private fun equalize(partition: Pair<List<Maybe<Left<*, *>>>, List<Maybe<Right<*, *>>>>): Pair<List<Maybe<Left<*, *>>>, List<Maybe<Right<*, *>>>> {
-            val (lefts, rights) = partition
-            return when {
-                lefts.size == rights.size -> Pair(lefts, rights)
-                lefts.size < rights.size -> Pair(lefts + Nothing(), rights)
-                else -> Pair(lefts, rights + Nothing())
+        fun partition(eithers: Collection<Either<*, *>>): Pair<List<Left<*, *>>, List<Right<*, *>>> {
+            val lefts = ArrayList<Left<*, *>>(eithers.size)
+            val rights = ArrayList<Right<*, *>>(eithers.size)
+            for (e in eithers) {
+                when (e) {
+                    is Left -> lefts.add(e)
+                    is Right -> rights.add(e)
+                }
             }
+            return Pair(lefts, rights)
         }
 
         /**
@@ -95,19 +169,11 @@ sealed class Either<L, R> constructor(val error: L, value: R) : Monad<R, Either<
          * ```
          */
         @JvmStatic @Pure
-        fun partitionLeft(eithers: Collection<Either<*, *>>): Pair<List<Maybe<Left<*, *>>>, List<Maybe<Right<*, *>>>> =
-                equalize(eithers.fold(Pair(listOf(), listOf()), { es, e ->
-                    when (e) {
-                        is Right -> when {
-                            es.left.size == es.right.size -> Pair(es.left, es.right + Just(e))
-                            else -> Pair(es.left + Nothing(), es.right + Just(e))
-                        }
-                        is Left -> when {
-                            es.left.size == es.right.size -> Pair(es.left + Just(e), es.right + Nothing())
-                            else -> Pair(es.left + Just(e), es.right)
-                        }
-                    }
-                }))
+        fun partitionLeft(eithers: Collection<Either<*, *>>): Pair<List<Maybe<Left<*, *>>>, List<Maybe<Right<*, *>>>> {
+            val partition = AlignedPartition(opensWithLeft = false, capacity = eithers.size + 1)
+            for (e in eithers) partition.accept(e)
+            return partition.finish()
+        }
 
         /**
          * Partitions a [Collection] of [Maybe] ([Either]) into two lists of equal length. All the
@@ -126,19 +192,11 @@ sealed class Either<L, R> constructor(val error: L, value: R) : Monad<R, Either<
          * ```
          */
         @JvmStatic @Pure
-        fun partitionRight(eithers: Collection<Either<*, *>>): Pair<List<Maybe<Left<*, *>>>, List<Maybe<Right<*, *>>>> =
-                equalize(eithers.fold(Pair(listOf(), listOf()), { es, e ->
-                    when (e) {
-                        is Left -> when {
-                            es.left.size == es.right.size -> Pair(es.left + Just(e), es.right)
-                            else -> Pair(es.left + Just(e), es.right + Nothing())
-                        }
-                        is Right -> when {
-                            es.left.size == es.right.size -> Pair(es.left + Nothing(), es.right + Just(e))
-                            else -> Pair(es.left, es.right + Just(e))
-                        }
-                    }
-                }))
+        fun partitionRight(eithers: Collection<Either<*, *>>): Pair<List<Maybe<Left<*, *>>>, List<Maybe<Right<*, *>>>> {
+            val partition = AlignedPartition(opensWithLeft = true, capacity = eithers.size + 1)
+            for (e in eithers) partition.accept(e)
+            return partition.finish()
+        }
 
         /**
          * Extracts from a [Collection] of [Either] all the [Left] elements.
@@ -170,5 +228,232 @@ sealed class Either<L, R> constructor(val error: L, value: R) : Monad<R, Either<
         fun rights(eithers: Collection<Either<*, *>>): List<Right<*, *>> =
                 eithers.filter { it -> it is Right<*, *> } as List<Right<*, *>>
 
+        /**
+         * Returns a lazy [Sequence] of the [Left] elements of `eithers`, in order. Unlike [lefts]
+         * no list is built; elements are filtered as the sequence is iterated.
+         */
+        @JvmStatic @Pure
+        fun leftsSequence(eithers: Iterable<Either<*, *>>): Sequence<Left<*, *>> =
+                eithers.asSequence().filterIsInstance<Left<*, *>>()
+
+        /**
+         * Returns a lazy [Sequence] of the [Right] elements of `eithers`, in order. Unlike [rights]
+         * no list is built; elements are filtered as the sequence is iterated.
+         */
+        @JvmStatic @Pure
+        fun rightsSequence(eithers: Iterable<Either<*, *>>): Sequence<Right<*, *>> =
+                eithers.asSequence().filterIsInstance<Right<*, *>>()
+
+        /**
+         * Returns a view of the [Left] elements of `eithers`. Each iteration filters the
+         * underlying [Iterable] afresh, and so observes any changes made to it.
+         */
+        @JvmStatic @Pure
+        fun leftsIterable(eithers: Iterable<Either<*, *>>): Iterable<Left<*, *>> =
+                leftsSequence(eithers).asIterable()
+
+        /**
+         * Returns a view of the [Right] elements of `eithers`. Each iteration filters the
+         * underlying [Iterable] afresh, and so observes any changes made to it.
+         */
+        @JvmStatic @Pure
+        fun rightsIterable(eithers: Iterable<Either<*, *>>): Iterable<Right<*, *>> =
+                rightsSequence(eithers).asIterable()
+
+        /**
+         * Returns a [Spliterator] over the [Left] elements of `eithers`, suitable for a parallel
+         * stream. The estimated size is that of the remaining source elements, which keeps splits
+         * balanced without counting the `Left` elements up front.
+         *
+         * # Example Usage
+         *
+         * ```
+         * val failures = StreamSupport.stream(leftsSpliterator(list), true).count()
+         * ```
+         */
+        @JvmStatic @Pure
+        fun leftsSpliterator(eithers: Collection<Either<*, *>>): Spliterator<Left<*, *>> =
+                EitherSpliterator(eithers.spliterator(), Left::class.java as Class<Left<*, *>>)
+
+        /**
+         * Returns a [Spliterator] over the [Right] elements of `eithers`, suitable for a parallel
+         * stream. The estimated size is that of the remaining source elements, which keeps splits
+         * balanced without counting the `Right` elements up front.
+         */
+        @JvmStatic @Pure
+        fun rightsSpliterator(eithers: Collection<Either<*, *>>): Spliterator<Right<*, *>> =
+                EitherSpliterator(eithers.spliterator(), Right::class.java as Class<Right<*, *>>)
+
+        /**
+         * Returns a [Collector] which partitions a stream of [Either] like [partition].
+         * The collector may be used with a parallel stream; the partial results of each
+         * chunk are concatenated in encounter order.
+         *
+         * # Example Usage
+         *
+         * ```
+         * val (lefts, rights) = list.parallelStream().collect(toPartition())
+         * ```
+         */
+        @JvmStatic @Pure
+        fun toPartition(): Collector<Either<*, *>, *, Pair<List<Left<*, *>>, List<Right<*, *>>>> =
+                Collector.of(
+                        Supplier { Pair(ArrayList<Left<*, *>>(), ArrayList<Right<*, *>>()) },
+                        BiConsumer { es, e ->
+                            when (e) {
+                                is Left -> es.left.add(e)
+                                is Right -> es.right.add(e)
+                            }
+                        },
+                        BinaryOperator { es, other -> es.left.addAll(other.left); es.right.addAll(other.right); es },
+                        Function { es -> Pair<List<Left<*, *>>, List<Right<*, *>>>(es.left, es.right) })
+
+        /**
+         * Returns a [Collector] which partitions a stream of [Either] like [partitionLeft].
+         * The collector may be used with a parallel stream; a `Right` element at the end of one
+         * chunk is paired with a `Left` element at the start of the next.
+         */
+        @JvmStatic @Pure
+        fun toPartitionLeft(): Collector<Either<*, *>, *, Pair<List<Maybe<Left<*, *>>>, List<Maybe<Right<*, *>>>>> =
+                alignedPartitionCollector(opensWithLeft = false)
+
+        /**
+         * Returns a [Collector] which partitions a stream of [Either] like [partitionRight].
+         * The collector may be used with a parallel stream; a `Left` element at the end of one
+         * chunk is paired with a `Right` element at the start of the next.
+         */
+        @JvmStatic @Pure
+        fun toPartitionRight(): Collector<Either<*, *>, *, Pair<List<Maybe<Left<*, *>>>, List<Maybe<Right<*, *>>>>> =
+                alignedPartitionCollector(opensWithLeft = true)
+
+        /**
+         * Returns a [Collector] which extracts from a stream of [Either] all the [Left] elements,
+         * like [lefts]. The collector may be used with a parallel stream.
+         */
+        @JvmStatic @Pure
+        fun toLefts(): Collector<Either<*, *>, *, List<Left<*, *>>> =
+                Collector.of(
+                        Supplier { ArrayList<Left<*, *>>() },
+                        BiConsumer { es, e -> if (e is Left) es.add(e) },
+                        BinaryOperator { es, other -> es.addAll(other); es },
+                        Function { es -> es as List<Left<*, *>> })
+
+        /**
+         * Returns a [Collector] which extracts from a stream of [Either] all the [Right] elements,
+         * like [rights]. The collector may be used with a parallel stream.
+         */
+        @JvmStatic @Pure
+        fun toRights(): Collector<Either<*, *>, *, List<Right<*, *>>> =
+                Collector.of(
+                        Supplier { ArrayList<Right<*, *>>() },
+                        BiConsumer { es, e -> if (e is Right) es.add(e) },
+                        BinaryOperator { es, other -> es.addAll(other); es },
+                        Function { es -> es as List<Right<*, *>> })
+
+        private fun alignedPartitionCollector(opensWithLeft: Boolean): Collector<Either<*, *>, *, Pair<List<Maybe<Left<*, *>>>, List<Maybe<Right<*, *>>>>> =
+                Collector.of(
+                        Supplier { AlignedPartition(opensWithLeft) },
+                        BiConsumer { partition, e -> partition.accept(e) },
+                        BinaryOperator { partition, other -> partition.combine(other) },
+                        Function { partition -> partition.finish() })
+
+    }
+}
+
+/**
+ * Accumulates the aligned partitions of [Either.partitionLeft] and [Either.partitionRight].
+ *
+ * Elements of the opening branch (`Right` for `partitionLeft`, `Left` for `partitionRight`)
+ * start a new row, which the element immediately following may close. Any other element of the
+ * closing branch is given a row of its own, padded with [Nothing].
+ */
+private class AlignedPartition(private val opensWithLeft: Boolean, capacity: Int = 10) {
+
+    private val opening = ArrayList<Maybe<*>>(capacity)
+    private val closing = ArrayList<Maybe<*>>(capacity)
+    // whether the first element accepted was of the closing branch, and so was padded with `Nothing`
+    private var leadsWithClosing = false
+
+    private fun isEmpty(): Boolean = opening.isEmpty() && closing.isEmpty()
+
+    // the last element accepted was of the opening branch, and its row is still awaiting a partner
+    private fun isOpen(): Boolean = opening.size > closing.size
+
+    private fun opens(e: Either<*, *>): Boolean = (e is Left) == opensWithLeft
+
+    fun accept(e: Either<*, *>) {
+        if (opens(e)) {
+            if (isOpen()) closing.add(Maybe.Nothing<Any>())
+            opening.add(Just(e))
+        } else {
+            if (isEmpty()) leadsWithClosing = true
+            if (!isOpen()) opening.add(Maybe.Nothing<Any>())
+            closing.add(Just(e))
+        }
+    }
+
+    /**
+     * Appends the rows of `other`, which must have accepted the elements following the elements of
+     * this partition.
+     */
+    fun combine(other: AlignedPartition): AlignedPartition {
+        when {
+            other.isEmpty() -> return this
+            isEmpty() -> return other
+            isOpen() && other.leadsWithClosing -> {
+                // the first element of `other` closes our last row rather than being padded
+                closing.addAll(other.closing)
+                opening.addAll(other.opening.subList(1, other.opening.size))
+            }
+            else -> {
+                if (isOpen()) closing.add(Maybe.Nothing<Any>())
+                opening.addAll(other.opening)
+                closing.addAll(other.closing)
+            }
+        }
+        return this
+    }
+
+    fun finish(): Pair<List<Maybe<Left<*, *>>>, List<Maybe<Right<*, *>>>> {
+        if (isOpen()) closing.add(Maybe.Nothing<Any>())
+        return when {
+            opensWithLeft -> Pair(opening as List<Maybe<Left<*, *>>>, closing as List<Maybe<Right<*, *>>>)
+            else -> Pair(closing as List<Maybe<Left<*, *>>>, opening as List<Maybe<Right<*, *>>>)
+        }
+    }
+}
+
+/**
+ * Filters a [Spliterator] of [Either] to the elements of a single branch as it is traversed.
+ */
+private class EitherSpliterator<E : Either<*, *>>(
+        private val source: Spliterator<Either<*, *>>,
+        private val type: Class<E>) : Spliterator<E>, Consumer<Either<*, *>> {
+
+    private var next: E? = null
+
+    override fun accept(e: Either<*, *>) {
+        if (type.isInstance(e)) next = e as E
     }
-}
\ No newline at end of file
+
+    override fun tryAdvance(action: Consumer<in E>): Boolean {
+        while (next == null && source.tryAdvance(this)) {
+            // skip elements of the other branch
+        }
+        val e = next ?: return false
+        next = null
+        action.accept(e)
+        return true
+    }
+
+    override fun forEachRemaining(action: Consumer<in E>) =
+            source.forEachRemaining { e -> if (type.isInstance(e)) action.accept(e as E) }
+
+    override fun trySplit(): Spliterator<E>? = source.trySplit()?.let { EitherSpliterator(it, type) }
+
+    // an upper bound, since the filtered size isn't known until traversal
+    override fun estimateSize(): Long = source.estimateSize()
+
+    override fun characteristics(): Int =
+            source.characteristics() and (Spliterator.SIZED or Spliterator.SUBSIZED or Spliterator.SORTED).inv()
+}
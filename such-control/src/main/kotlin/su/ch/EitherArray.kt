@@ -0,0 +1,173 @@
+@file:Suppress("UNCHECKED_CAST")
+
+package su.ch
+
+import su.ch.annotation.Beta
+import su.ch.annotation.Pure
+import java.util.BitSet
+import java.util.function.BiFunction
+import java.util.function.Function
+import java.util.function.ObjIntConsumer
+
+/**
+ * A fixed number of [Either] values stored in columns: a bitmap of which are [Either.Right],
+ * and a single array holding the value of each `Right` and the error of each `Left`. No
+ * `Either` is allocated unless one is asked for with [toEither]. [map], [fold] and
+ * [forEachRight] work over the `Right` values only, using the bitmap to skip the `Left` ones.
+ *
+ * Every element is a `Left` with a `null` error until it is set. An `EitherArray` is not
+ * thread-safe.
+ *
+ * @see EitherIntArray
+ * @see EitherLongArray
+ * @see EitherDoubleArray
+ */
+@Beta
+class EitherArray<L, R>(val size: Int) {
+
+    private val rights = BitSet(size)
+    private val values = arrayOfNulls<Any?>(size)
+
+    /**
+     * Returns `true` if element `i` is a `Right`.
+     */
+    @Pure fun isRight(i: Int): Boolean = rights.get(check(i))
+
+    /**
+     * Returns the value of element `i`, which must be a `Right`.
+     */
+    @Pure fun getRight(i: Int): R {
+        if (!isRight(i)) throw NoSuchElementException("element $i is a Left")
+        return values[i] as R
+    }
+
+    /**
+     * Returns the error of element `i`, which must be a `Left`.
+     */
+    @Pure fun getLeft(i: Int): L {
+        if (isRight(i)) throw NoSuchElementException("element $i is a Right")
+        return values[i] as L
+    }
+
+    /**
+     * Makes element `i` a `Right`, with `value`.
+     */
+    fun setRight(i: Int, value: R) {
+        values[check(i)] = value
+        rights.set(i)
+    }
+
+    /**
+     * Makes element `i` a `Left`, with `error`.
+     */
+    fun setLeft(i: Int, error: L) {
+        values[check(i)] = error
+        rights.clear(i)
+    }
+
+    /**
+     * Returns the number of `Right` elements.
+     */
+    @Pure fun countRights(): Int = rights.cardinality()
+
+    /**
+     * Returns the index of the first `Right` element at or after `from`, or -1 if there is none.
+     */
+    @Pure fun nextRight(from: Int): Int = if (from >= size) -1 else rights.nextSetBit(from).let { if (it >= size) -1 else it }
+
+    /**
+     * Returns the index of the first `Left` element at or after `from`, or -1 if there is none.
+     */
+    @Pure fun nextLeft(from: Int): Int = if (from >= size) -1 else rights.nextClearBit(from).let { if (it >= size) -1 else it }
+
+    /**
+     * Returns element `i` as an [Either].
+     */
+    @Pure fun toEither(i: Int): Either<L, R> = if (isRight(i)) Either.Right(values[i] as R) else Either.Left(values[i] as L)
+
+    /**
+     * Returns a new `EitherArray` holding the result of `mapper` for each `Right` element, and
+     * the same `Left` elements as this one.
+     */
+    @Pure fun <B> map(mapper: Function<in R, out B>): EitherArray<L, B> {
+        val mapped = EitherArray<L, B>(size)
+        mapped.rights.or(rights)
+        // the errors of the `Left` elements are copied with the values, then the `Right` ones replaced
+        System.arraycopy(values, 0, mapped.values, 0, size)
+        var i = rights.nextSetBit(0)
+        while (i in 0 until size) {
+            mapped.values[i] = mapper.apply(values[i] as R)
+            i = rights.nextSetBit(i + 1)
+        }
+        return mapped
+    }
+
+    /**
+     * Combines the `Right` values, in order, with `accumulator`, starting from `identity`.
+     */
+    @Pure fun <B> fold(identity: B, accumulator: BiFunction<B, in R, B>): B {
+        var result = identity
+        var i = rights.nextSetBit(0)
+        while (i in 0 until size) {
+            result = accumulator.apply(result, values[i] as R)
+            i = rights.nextSetBit(i + 1)
+        }
+        return result
+    }
+
+    /**
+     * Calls `action` with each `Right` value and its index, in order.
+     */
+    fun forEachRight(action: ObjIntConsumer<in R>) {
+        var i = rights.nextSetBit(0)
+        while (i in 0 until size) {
+            action.accept(values[i] as R, i)
+            i = rights.nextSetBit(i + 1)
+        }
+    }
+
+    /**
+     * Calls `action` with each `Left` error and its index, in order.
+     */
+    fun forEachLeft(action: ObjIntConsumer<in L>) {
+        var i = rights.nextClearBit(0)
+        while (i < size) {
+            action.accept(values[i] as L, i)
+            i = rights.nextClearBit(i + 1)
+        }
+    }
+
+    /**
+     * Returns the elements as a list of [Either] values.
+     */
+    @Pure fun toList(): List<Either<L, R>> = List(size) { toEither(it) }
+
+    override fun equals(other: Any?): Boolean =
+            other is EitherArray<*, *> && size == other.size && rights == other.rights && values.contentEquals(other.values)
+
+    override fun hashCode(): Int = 31 * rights.hashCode() + values.contentHashCode()
+
+    override fun toString(): String = ToString(this).addValue(toList()).toString()
+
+    private fun check(i: Int): Int {
+        if (i < 0 || i >= size) throw IndexOutOfBoundsException("index $i, size $size")
+        return i
+    }
+
+    companion object {
+
+        /**
+         * Returns a new `EitherArray` holding the elements of `eithers`.
+         */
+        @JvmStatic fun <L, R> of(eithers: List<Either<L, R>>): EitherArray<L, R> {
+            val array = EitherArray<L, R>(eithers.size)
+            eithers.forEachIndexed { i, either ->
+                when (either) {
+                    is Either.Left -> array.setLeft(i, either.error)
+                    is Either.Right -> array.setRight(i, either.get())
+                }
+            }
+            return array
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package su.ch
+
+import su.ch.annotation.Beta
+import su.ch.annotation.Pure
+import java.util.function.Function
+import java.util.function.DoubleFunction
+import java.util.function.DoubleUnaryOperator
+
+/**
+ * A right-biased [Either] specialised to a `double` right value. A [Right] holds its value
+ * unboxed, and [map], [flatMap] and [fold] work with primitive functions, so that a
+ * successful computation does not allocate a box per step.
+ *
+ * `EitherDouble` converts to and from `Either<L, Double>` with [toEither] and [fromEither].
+ */
+@Beta
+sealed class EitherDouble<L> {
+
+    /**
+     * Returns `true` if this is a [Right] value.
+     */
+    @Pure abstract fun isRight(): Boolean
+
+    /**
+     * Applies `mapper` to the value of a [Right]. A [Left] is returned as it is.
+     */
+    @Pure abstract fun map(mapper: DoubleUnaryOperator): EitherDouble<L>
+
+    /**
+     * Applies `mapper` to the value of a [Right], returning its result. A [Left] is returned
+     * as it is.
+     */
+    @Pure abstract fun flatMap(mapper: DoubleFunction<EitherDouble<L>>): EitherDouble<L>
+
+    /**
+     * Applies `left` to the error of a [Left], or `right` to the value of a [Right].
+     */
+    @Pure abstract fun <B> fold(left: Function<L, B>, right: DoubleFunction<B>): B
+
+    /**
+     * Returns the value of a [Right], or `other` if this is a [Left].
+     */
+    @Pure abstract fun getOrElse(other: Double): Double
+
+    /**
+     * Returns the equivalent (boxed) [Either].
+     */
+    @Pure abstract fun toEither(): Either<L, Double>
+
+    /**
+     * Instance of [EitherDouble] which by convention represents failure.
+     */
+    class Left<L>(val error: L) : EitherDouble<L>() {
+
+        override fun isRight(): Boolean = false
+
+        override fun map(mapper: DoubleUnaryOperator): EitherDouble<L> = this
+
+        override fun flatMap(mapper: DoubleFunction<EitherDouble<L>>): EitherDouble<L> = this
+
+        override fun <B> fold(left: Function<L, B>, right: DoubleFunction<B>): B = left.apply(error)
+
+        override fun getOrElse(other: Double): Double = other
+
+        override fun toEither(): Either<L, Double> = Either.Left(error)
+
+        override fun equals(other: Any?): Boolean = other is Left<*> && error == other.error
+
+        override fun hashCode(): Int = error?.hashCode() ?: 0
+
+        override fun toString(): String =
+                ToString(this)
+                        .addValue(error)
+                        .toString()
+    }
+
+    /**
+     * Instance of [EitherDouble] which by convention represents success.
+     */
+    class Right<L>(val value: Double) : EitherDouble<L>() {
+
+        override fun isRight(): Boolean = true
+
+        override fun map(mapper: DoubleUnaryOperator): EitherDouble<L> = Right(mapper.applyAsDouble(value))
+
+        override fun flatMap(mapper: DoubleFunction<EitherDouble<L>>): EitherDouble<L> = mapper.apply(value)
+
+        override fun <B> fold(left: Function<L, B>, right: DoubleFunction<B>): B = right.apply(value)
+
+        override fun getOrElse(other: Double): Double = value
+
+        override fun toEither(): Either<L, Double> = Either.Right(value)
+
+        override fun equals(other: Any?): Boolean = other is Right<*> && java.lang.Double.compare(value, other.value) == 0
+
+        override fun hashCode(): Int = java.lang.Double.hashCode(value)
+
+        override fun toString(): String =
+                ToString(this)
+                        .addValue(value)
+                        .toString()
+    }
+
+    companion object {
+
+        /**
+         * Returns a new [Left] value which by convention represents failure.
+         */
+        @JvmStatic fun <L> Left(error: L): EitherDouble<L> = EitherDouble.Left(error)
+
+        /**
+         * Returns a new [Right] value which by convention represents success.
+         */
+        @JvmStatic fun <L> Right(value: Double): EitherDouble<L> = EitherDouble.Right(value)
+
+        /**
+         * Returns the [EitherDouble] equivalent to `either`.
+         */
+        @JvmStatic @Pure
+        fun <L> fromEither(either: Either<L, Double>): EitherDouble<L> =
+                when (either) {
+                    is Either.Left -> Left(either.error)
+                    is Either.Right -> Right(either.get())
+                }
+    }
+}
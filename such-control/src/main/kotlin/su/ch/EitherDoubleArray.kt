@@ -0,0 +1,181 @@
+@file:Suppress("UNCHECKED_CAST")
+
+package su.ch
+
+import su.ch.annotation.Beta
+import su.ch.annotation.Pure
+import java.util.BitSet
+import java.util.function.DoubleBinaryOperator
+import java.util.function.DoubleConsumer
+import java.util.function.DoubleUnaryOperator
+import java.util.function.ObjIntConsumer
+
+/**
+ * An [EitherArray] specialised to `double` right values, which are held unboxed in a `double` array
+ * alongside the bitmap of which elements are `Right`. The errors of `Left` elements are kept in
+ * a separate array, which isn't allocated until the first `Left` is set.
+ *
+ * Every element is a `Left` with a `null` error until it is set. An `EitherDoubleArray` is not
+ * thread-safe.
+ */
+@Beta
+class EitherDoubleArray<L>(val size: Int) {
+
+    private val rights = BitSet(size)
+    private val values = DoubleArray(size)
+    private var errors: Array<Any?>? = null
+
+    /**
+     * Returns `true` if element `i` is a `Right`.
+     */
+    @Pure fun isRight(i: Int): Boolean = rights.get(check(i))
+
+    /**
+     * Returns the value of element `i`, which must be a `Right`.
+     */
+    @Pure fun getRight(i: Int): Double {
+        if (!isRight(i)) throw NoSuchElementException("element $i is a Left")
+        return values[i]
+    }
+
+    /**
+     * Returns the error of element `i`, which must be a `Left`.
+     */
+    @Pure fun getLeft(i: Int): L {
+        if (isRight(i)) throw NoSuchElementException("element $i is a Right")
+        return errors?.get(i) as L
+    }
+
+    /**
+     * Makes element `i` a `Right`, with `value`.
+     */
+    fun setRight(i: Int, value: Double) {
+        values[check(i)] = value
+        errors?.set(i, null)
+        rights.set(i)
+    }
+
+    /**
+     * Makes element `i` a `Left`, with `error`.
+     */
+    fun setLeft(i: Int, error: L) {
+        values[check(i)] = 0.0
+        (errors ?: arrayOfNulls<Any?>(size).also { errors = it })[i] = error
+        rights.clear(i)
+    }
+
+    /**
+     * Returns the number of `Right` elements.
+     */
+    @Pure fun countRights(): Int = rights.cardinality()
+
+    /**
+     * Returns the index of the first `Right` element at or after `from`, or -1 if there is none.
+     */
+    @Pure fun nextRight(from: Int): Int = if (from >= size) -1 else rights.nextSetBit(from).let { if (it >= size) -1 else it }
+
+    /**
+     * Returns the index of the first `Left` element at or after `from`, or -1 if there is none.
+     */
+    @Pure fun nextLeft(from: Int): Int = if (from >= size) -1 else rights.nextClearBit(from).let { if (it >= size) -1 else it }
+
+    /**
+     * Returns element `i` as an [EitherDouble].
+     */
+    @Pure fun toEitherDouble(i: Int): EitherDouble<L> = if (isRight(i)) EitherDouble.Right(values[i]) else EitherDouble.Left(errors?.get(i) as L)
+
+    /**
+     * Returns a new `EitherDoubleArray` holding the result of `mapper` for each `Right` element,
+     * and the same `Left` elements as this one.
+     */
+    @Pure fun map(mapper: DoubleUnaryOperator): EitherDoubleArray<L> {
+        val mapped = EitherDoubleArray<L>(size)
+        mapped.rights.or(rights)
+        mapped.errors = errors?.copyOf()
+        var i = rights.nextSetBit(0)
+        while (i in 0 until size) {
+            mapped.values[i] = mapper.applyAsDouble(values[i])
+            i = rights.nextSetBit(i + 1)
+        }
+        return mapped
+    }
+
+    /**
+     * Combines the `Right` values, in order, with `accumulator`, starting from `identity`.
+     */
+    @Pure fun fold(identity: Double, accumulator: DoubleBinaryOperator): Double {
+        var result = identity
+        var i = rights.nextSetBit(0)
+        while (i in 0 until size) {
+            result = accumulator.applyAsDouble(result, values[i])
+            i = rights.nextSetBit(i + 1)
+        }
+        return result
+    }
+
+    /**
+     * Calls `action` with each `Right` value, in order.
+     */
+    fun forEachRight(action: DoubleConsumer) {
+        var i = rights.nextSetBit(0)
+        while (i in 0 until size) {
+            action.accept(values[i])
+            i = rights.nextSetBit(i + 1)
+        }
+    }
+
+    /**
+     * Calls `action` with each `Left` error and its index, in order.
+     */
+    fun forEachLeft(action: ObjIntConsumer<in L>) {
+        var i = rights.nextClearBit(0)
+        while (i < size) {
+            action.accept(errors?.get(i) as L, i)
+            i = rights.nextClearBit(i + 1)
+        }
+    }
+
+    /**
+     * Returns the elements as a list of [EitherDouble] values.
+     */
+    @Pure fun toList(): List<EitherDouble<L>> = List(size) { toEitherDouble(it) }
+
+    override fun equals(other: Any?): Boolean =
+            other is EitherDoubleArray<*> && size == other.size && rights == other.rights &&
+                    values.contentEquals(other.values) && sameErrors(other)
+
+    override fun hashCode(): Int = 31 * rights.hashCode() + values.contentHashCode()
+
+    private fun sameErrors(other: EitherDoubleArray<*>): Boolean {
+        var i = rights.nextClearBit(0)
+        while (i < size) {
+            if (errors?.get(i) != other.errors?.get(i)) return false
+            i = rights.nextClearBit(i + 1)
+        }
+        return true
+    }
+
+    override fun toString(): String = ToString(this).addValue(toList()).toString()
+
+    private fun check(i: Int): Int {
+        if (i < 0 || i >= size) throw IndexOutOfBoundsException("index $i, size $size")
+        return i
+    }
+
+    companion object {
+
+        /**
+         * Returns a new `EitherDoubleArray` holding the elements of `eithers`.
+         */
+        @JvmStatic fun <L> of(eithers: List<EitherDouble<L>>): EitherDoubleArray<L> {
+            val array = EitherDoubleArray<L>(eithers.size)
+            eithers.forEachIndexed { i, either ->
+                when (either) {
+                    is EitherDouble.Left -> array.setLeft(i, either.error)
+                    is EitherDouble.Right -> array.setRight(i, either.value)
+                }
+            }
+            return array
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package su.ch
+
+import su.ch.annotation.Beta
+import su.ch.annotation.Pure
+import java.util.function.Function
+import java.util.function.IntFunction
+import java.util.function.IntUnaryOperator
+
+/**
+ * A right-biased [Either] specialised to an `int` right value. A [Right] holds its value
+ * unboxed, and [map], [flatMap] and [fold] work with primitive functions, so that a
+ * successful computation does not allocate a box per step.
+ *
+ * `EitherInt` converts to and from `Either<L, Int>` with [toEither] and [fromEither].
+ */
+@Beta
+sealed class EitherInt<L> {
+
+    /**
+     * Returns `true` if this is a [Right] value.
+     */
+    @Pure abstract fun isRight(): Boolean
+
+    /**
+     * Applies `mapper` to the value of a [Right]. A [Left] is returned as it is.
+     */
+    @Pure abstract fun map(mapper: IntUnaryOperator): EitherInt<L>
+
+    /**
+     * Applies `mapper` to the value of a [Right], returning its result. A [Left] is returned
+     * as it is.
+     */
+    @Pure abstract fun flatMap(mapper: IntFunction<EitherInt<L>>): EitherInt<L>
+
+    /**
+     * Applies `left` to the error of a [Left], or `right` to the value of a [Right].
+     */
+    @Pure abstract fun <B> fold(left: Function<L, B>, right: IntFunction<B>): B
+
+    /**
+     * Returns the value of a [Right], or `other` if this is a [Left].
+     */
+    @Pure abstract fun getOrElse(other: Int): Int
+
+    /**
+     * Returns the equivalent (boxed) [Either].
+     */
+    @Pure abstract fun toEither(): Either<L, Int>
+
+    /**
+     * Instance of [EitherInt] which by convention represents failure.
+     */
+    class Left<L>(val error: L) : EitherInt<L>() {
+
+        override fun isRight(): Boolean = false
+
+        override fun map(mapper: IntUnaryOperator): EitherInt<L> = this
+
+        override fun flatMap(mapper: IntFunction<EitherInt<L>>): EitherInt<L> = this
+
+        override fun <B> fold(left: Function<L, B>, right: IntFunction<B>): B = left.apply(error)
+
+        override fun getOrElse(other: Int): Int = other
+
+        override fun toEither(): Either<L, Int> = Either.Left(error)
+
+        override fun equals(other: Any?): Boolean = other is Left<*> && error == other.error
+
+        override fun hashCode(): Int = error?.hashCode() ?: 0
+
+        override fun toString(): String =
+                ToString(this)
+                        .addValue(error)
+                        .toString()
+    }
+
+    /**
+     * Instance of [EitherInt] which by convention represents success.
+     */
+    class Right<L>(val value: Int) : EitherInt<L>() {
+
+        override fun isRight(): Boolean = true
+
+        override fun map(mapper: IntUnaryOperator): EitherInt<L> = Right(mapper.applyAsInt(value))
+
+        override fun flatMap(mapper: IntFunction<EitherInt<L>>): EitherInt<L> = mapper.apply(value)
+
+        override fun <B> fold(left: Function<L, B>, right: IntFunction<B>): B = right.apply(value)
+
+        override fun getOrElse(other: Int): Int = value
+
+        override fun toEither(): Either<L, Int> = Either.Right(value)
+
+        override fun equals(other: Any?): Boolean = other is Right<*> && value == other.value
+
+        override fun hashCode(): Int = value
+
+        override fun toString(): String =
+                ToString(this)
+                        .addValue(value)
+                        .toString()
+    }
+
+    companion object {
+
+        /**
+         * Returns a new [Left] value which by convention represents failure.
+         */
+        @JvmStatic fun <L> Left(error: L): EitherInt<L> = EitherInt.Left(error)
+
+        /**
+         * Returns a new [Right] value which by convention represents success.
+         */
+        @JvmStatic fun <L> Right(value: Int): EitherInt<L> = EitherInt.Right(value)
+
+        /**
+         * Returns the [EitherInt] equivalent to `either`.
+         */
+        @JvmStatic @Pure
+        fun <L> fromEither(either: Either<L, Int>): EitherInt<L> =
+                when (either) {
+                    is Either.Left -> Left(either.error)
+                    is Either.Right -> Right(either.get())
+                }
+    }
+}
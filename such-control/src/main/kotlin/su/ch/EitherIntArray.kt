@@ -0,0 +1,181 @@
+@file:Suppress("UNCHECKED_CAST")
+
+package su.ch
+
+import su.ch.annotation.Beta
+import su.ch.annotation.Pure
+import java.util.BitSet
+import java.util.function.IntBinaryOperator
+import java.util.function.IntConsumer
+import java.util.function.IntUnaryOperator
+import java.util.function.ObjIntConsumer
+
+/**
+ * An [EitherArray] specialised to `int` right values, which are held unboxed in an `int` array
+ * alongside the bitmap of which elements are `Right`. The errors of `Left` elements are kept in
+ * a separate array, which isn't allocated until the first `Left` is set.
+ *
+ * Every element is a `Left` with a `null` error until it is set. An `EitherIntArray` is not
+ * thread-safe.
+ */
+@Beta
+class EitherIntArray<L>(val size: Int) {
+
+    private val rights = BitSet(size)
+    private val values = IntArray(size)
+    private var errors: Array<Any?>? = null
+
+    /**
+     * Returns `true` if element `i` is a `Right`.
+     */
+    @Pure fun isRight(i: Int): Boolean = rights.get(check(i))
+
+    /**
+     * Returns the value of element `i`, which must be a `Right`.
+     */
+    @Pure fun getRight(i: Int): Int {
+        if (!isRight(i)) throw NoSuchElementException("element $i is a Left")
+        return values[i]
+    }
+
+    /**
+     * Returns the error of element `i`, which must be a `Left`.
+     */
+    @Pure fun getLeft(i: Int): L {
+        if (isRight(i)) throw NoSuchElementException("element $i is a Right")
+        return errors?.get(i) as L
+    }
+
+    /**
+     * Makes element `i` a `Right`, with `value`.
+     */
+    fun setRight(i: Int, value: Int) {
+        values[check(i)] = value
+        errors?.set(i, null)
+        rights.set(i)
+    }
+
+    /**
+     * Makes element `i` a `Left`, with `error`.
+     */
+    fun setLeft(i: Int, error: L) {
+        values[check(i)] = 0
+        (errors ?: arrayOfNulls<Any?>(size).also { errors = it })[i] = error
+        rights.clear(i)
+    }
+
+    /**
+     * Returns the number of `Right` elements.
+     */
+    @Pure fun countRights(): Int = rights.cardinality()
+
+    /**
+     * Returns the index of the first `Right` element at or after `from`, or -1 if there is none.
+     */
+    @Pure fun nextRight(from: Int): Int = if (from >= size) -1 else rights.nextSetBit(from).let { if (it >= size) -1 else it }
+
+    /**
+     * Returns the index of the first `Left` element at or after `from`, or -1 if there is none.
+     */
+    @Pure fun nextLeft(from: Int): Int = if (from >= size) -1 else rights.nextClearBit(from).let { if (it >= size) -1 else it }
+
+    /**
+     * Returns element `i` as an [EitherInt].
+     */
+    @Pure fun toEitherInt(i: Int): EitherInt<L> = if (isRight(i)) EitherInt.Right(values[i]) else EitherInt.Left(errors?.get(i) as L)
+
+    /**
+     * Returns a new `EitherIntArray` holding the result of `mapper` for each `Right` element,
+     * and the same `Left` elements as this one.
+     */
+    @Pure fun map(mapper: IntUnaryOperator): EitherIntArray<L> {
+        val mapped = EitherIntArray<L>(size)
+        mapped.rights.or(rights)
+        mapped.errors = errors?.copyOf()
+        var i = rights.nextSetBit(0)
+        while (i in 0 until size) {
+            mapped.values[i] = mapper.applyAsInt(values[i])
+            i = rights.nextSetBit(i + 1)
+        }
+        return mapped
+    }
+
+    /**
+     * Combines the `Right` values, in order, with `accumulator`, starting from `identity`.
+     */
+    @Pure fun fold(identity: Int, accumulator: IntBinaryOperator): Int {
+        var result = identity
+        var i = rights.nextSetBit(0)
+        while (i in 0 until size) {
+            result = accumulator.applyAsInt(result, values[i])
+            i = rights.nextSetBit(i + 1)
+        }
+        return result
+    }
+
+    /**
+     * Calls `action` with each `Right` value, in order.
+     */
+    fun forEachRight(action: IntConsumer) {
+        var i = rights.nextSetBit(0)
+        while (i in 0 until size) {
+            action.accept(values[i])
+            i = rights.nextSetBit(i + 1)
+        }
+    }
+
+    /**
+     * Calls `action` with each `Left` error and its index, in order.
+     */
+    fun forEachLeft(action: ObjIntConsumer<in L>) {
+        var i = rights.nextClearBit(0)
+        while (i < size) {
+            action.accept(errors?.get(i) as L, i)
+            i = rights.nextClearBit(i + 1)
+        }
+    }
+
+    /**
+     * Returns the elements as a list of [EitherInt] values.
+     */
+    @Pure fun toList(): List<EitherInt<L>> = List(size) { toEitherInt(it) }
+
+    override fun equals(other: Any?): Boolean =
+            other is EitherIntArray<*> && size == other.size && rights == other.rights &&
+                    values.contentEquals(other.values) && sameErrors(other)
+
+    override fun hashCode(): Int = 31 * rights.hashCode() + values.contentHashCode()
+
+    private fun sameErrors(other: EitherIntArray<*>): Boolean {
+        var i = rights.nextClearBit(0)
+        while (i < size) {
+            if (errors?.get(i) != other.errors?.get(i)) return false
+            i = rights.nextClearBit(i + 1)
+        }
+        return true
+    }
+
+    override fun toString(): String = ToString(this).addValue(toList()).toString()
+
+    private fun check(i: Int): Int {
+        if (i < 0 || i >= size) throw IndexOutOfBoundsException("index $i, size $size")
+        return i
+    }
+
+    companion object {
+
+        /**
+         * Returns a new `EitherIntArray` holding the elements of `eithers`.
+         */
+        @JvmStatic fun <L> of(eithers: List<EitherInt<L>>): EitherIntArray<L> {
+            val array = EitherIntArray<L>(eithers.size)
+            eithers.forEachIndexed { i, either ->
+                when (either) {
+                    is EitherInt.Left -> array.setLeft(i, either.error)
+                    is EitherInt.Right -> array.setRight(i, either.value)
+                }
+            }
+            return array
+        }
+    }
+}
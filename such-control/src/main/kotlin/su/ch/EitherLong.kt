@@ -0,0 +1,126 @@
+package su.ch
+
+import su.ch.annotation.Beta
+import su.ch.annotation.Pure
+import java.util.function.Function
+import java.util.function.LongFunction
+import java.util.function.LongUnaryOperator
+
+/**
+ * A right-biased [Either] specialised to a `long` right value. A [Right] holds its value
+ * unboxed, and [map], [flatMap] and [fold] work with primitive functions, so that a
+ * successful computation does not allocate a box per step.
+ *
+ * `EitherLong` converts to and from `Either<L, Long>` with [toEither] and [fromEither].
+ */
+@Beta
+sealed class EitherLong<L> {
+
+    /**
+     * Returns `true` if this is a [Right] value.
+     */
+    @Pure abstract fun isRight(): Boolean
+
+    /**
+     * Applies `mapper` to the value of a [Right]. A [Left] is returned as it is.
+     */
+    @Pure abstract fun map(mapper: LongUnaryOperator): EitherLong<L>
+
+    /**
+     * Applies `mapper` to the value of a [Right], returning its result. A [Left] is returned
+     * as it is.
+     */
+    @Pure abstract fun flatMap(mapper: LongFunction<EitherLong<L>>): EitherLong<L>
+
+    /**
+     * Applies `left` to the error of a [Left], or `right` to the value of a [Right].
+     */
+    @Pure abstract fun <B> fold(left: Function<L, B>, right: LongFunction<B>): B
+
+    /**
+     * Returns the value of a [Right], or `other` if this is a [Left].
+     */
+    @Pure abstract fun getOrElse(other: Long): Long
+
+    /**
+     * Returns the equivalent (boxed) [Either].
+     */
+    @Pure abstract fun toEither(): Either<L, Long>
+
+    /**
+     * Instance of [EitherLong] which by convention represents failure.
+     */
+    class Left<L>(val error: L) : EitherLong<L>() {
+
+        override fun isRight(): Boolean = false
+
+        override fun map(mapper: LongUnaryOperator): EitherLong<L> = this
+
+        override fun flatMap(mapper: LongFunction<EitherLong<L>>): EitherLong<L> = this
+
+        override fun <B> fold(left: Function<L, B>, right: LongFunction<B>): B = left.apply(error)
+
+        override fun getOrElse(other: Long): Long = other
+
+        override fun toEither(): Either<L, Long> = Either.Left(error)
+
+        override fun equals(other: Any?): Boolean = other is Left<*> && error == other.error
+
+        override fun hashCode(): Int = error?.hashCode() ?: 0
+
+        override fun toString(): String =
+                ToString(this)
+                        .addValue(error)
+                        .toString()
+    }
+
+    /**
+     * Instance of [EitherLong] which by convention represents success.
+     */
+    class Right<L>(val value: Long) : EitherLong<L>() {
+
+        override fun isRight(): Boolean = true
+
+        override fun map(mapper: LongUnaryOperator): EitherLong<L> = Right(mapper.applyAsLong(value))
+
+        override fun flatMap(mapper: LongFunction<EitherLong<L>>): EitherLong<L> = mapper.apply(value)
+
+        override fun <B> fold(left: Function<L, B>, right: LongFunction<B>): B = right.apply(value)
+
+        override fun getOrElse(other: Long): Long = value
+
+        override fun toEither(): Either<L, Long> = Either.Right(value)
+
+        override fun equals(other: Any?): Boolean = other is Right<*> && value == other.value
+
+        override fun hashCode(): Int = java.lang.Long.hashCode(value)
+
+        override fun toString(): String =
+                ToString(this)
+                        .addValue(value)
+                        .toString()
+    }
+
+    companion object {
+
+        /**
+         * Returns a new [Left] value which by convention represents failure.
+         */
+        @JvmStatic fun <L> Left(error: L): EitherLong<L> = EitherLong.Left(error)
+
+        /**
+         * Returns a new [Right] value which by convention represents success.
+         */
+        @JvmStatic fun <L> Right(value: Long): EitherLong<L> = EitherLong.Right(value)
+
+        /**
+         * Returns the [EitherLong] equivalent to `either`.
+         */
+        @JvmStatic @Pure
+        fun <L> fromEither(either: Either<L, Long>): EitherLong<L> =
+                when (either) {
+                    is Either.Left -> Left(either.error)
+                    is Either.Right -> Right(either.get())
+                }
+    }
+}
@@ -0,0 +1,203 @@
+@file:Suppress("UNCHECKED_CAST")
+
+package su.ch
+
+import su.ch.annotation.Experimental
+import su.ch.annotation.Pure
+import java.util.ArrayDeque
+import java.util.function.Function
+import java.util.function.Supplier
+import javax.annotation.concurrent.ThreadSafe
+
+/**
+ * A value which may not have been computed yet.
+ *
+ * An `Eval` is either [Now], which holds a value computed eagerly, [Later], which computes its
+ * value the first time it's needed and keeps it, or [Always], which computes its value every time
+ * it's needed. [map] and [flatMap] don't compute anything; the value is only computed by [get],
+ * which evaluates any chain of `flatMap`s, including memoized ones, in a single loop and so in
+ * constant stack space.
+ *
+ * # Example Usage
+ *
+ * ```
+ * val report: Eval<Maybe<Report>> = Eval.later(Supplier { repository.find(id) })
+ *
+ * if (verbose) {
+ *     log(report.get())
+ * }
+ * ```
+ *
+ * @param <A> The type of the value.
+ */
+@Experimental
+@ThreadSafe
+sealed class Eval<out A> {
+
+    /**
+     * Returns the value, computing it if necessary.
+     */
+    open fun get(): A = evaluate(this)
+
+    /**
+     * Returns a new `Eval` of `mapper` applied to the value. `mapper` is not called until the
+     * value is needed.
+     */
+    @Pure
+    fun <B> map(mapper: Function<in A, out B>): Eval<B> = FlatMap(this, Function { a: A -> Now(mapper.apply(a)) })
+
+    /**
+     * Returns the `Eval` returned by `mapper` applied to the value. `mapper` is not called until
+     * the value is needed.
+     */
+    @Pure
+    fun <B> flatMap(mapper: Function<in A, out Eval<B>>): Eval<B> = FlatMap(this, mapper)
+
+    /**
+     * Returns an `Eval` which keeps the value of this one once it has been computed.
+     */
+    @Pure
+    open fun memoize(): Eval<A> = Later<A>(this)
+
+    /**
+     * A value which has already been computed.
+     */
+    class Now<A> internal constructor(internal val value: A) : Eval<A>() {
+
+        override fun get(): A = value
+
+        override fun memoize(): Eval<A> = this
+
+        override fun toString(): String = ToString(this).addValue(value).toString()
+    }
+
+    /**
+     * A value which is computed the first time it's needed. Once it has been computed, reading
+     * it doesn't take a lock.
+     *
+     * A `Later` made by [Eval.later] calls its supplier at most once. One made by [memoize] may
+     * evaluate the `Eval` it memoizes more than once if several threads need its value at the
+     * same time, but they all see the value computed first.
+     */
+    class Later<A> internal constructor(source: Any) : Eval<A>() {
+
+        // the Supplier or Eval of the value, cleared once it has been computed, so that whatever
+        // it refers to can be collected
+        @Volatile private var source: Any? = source
+        // published by the volatile write to `source`
+        private var value: A? = null
+
+        // the Eval still to be evaluated for the value, or null if it comes from a Supplier
+        internal fun pending(): Eval<A>? = source as? Eval<A>
+
+        override fun get(): A {
+            if (source == null) return value as A
+            if (source is Eval<*>) return evaluate(this)
+            synchronized(this) {
+                val supplier = source as? Supplier<out A> ?: return value as A
+                value = supplier.get()
+                source = null
+                return value as A
+            }
+        }
+
+        // keeps `computed`, unless another thread has stored a value first
+        internal fun store(computed: A): A = synchronized(this) {
+            if (source != null) {
+                value = computed
+                source = null
+            }
+            value as A
+        }
+
+        override fun memoize(): Eval<A> = this
+
+        override fun toString(): String =
+                if (source == null) ToString(this).addValue(value).toString() else ToString(this).toString()
+    }
+
+    /**
+     * A value which is computed every time it's needed.
+     */
+    class Always<A> internal constructor(internal val supplier: Supplier<out A>) : Eval<A>() {
+
+        override fun get(): A = supplier.get()
+
+        override fun memoize(): Eval<A> = Later<A>(supplier)
+
+        override fun toString(): String = ToString(this).toString()
+    }
+
+    private class Defer<A>(val next: Supplier<out Eval<A>>) : Eval<A>()
+
+    private class FlatMap<A, B>(val source: Eval<A>, val mapper: Function<in A, out Eval<B>>) : Eval<B>()
+
+    companion object {
+
+        /**
+         * Returns an `Eval` of `value`, which has already been computed.
+         */
+        @JvmStatic fun <A> now(value: A): Eval<A> = Now(value)
+
+        /**
+         * Returns an `Eval` which calls `supplier` the first time its value is needed, and keeps
+         * the result. `supplier` is called at most once, even from several threads.
+         */
+        @JvmStatic fun <A> later(supplier: Supplier<out A>): Eval<A> = Later<A>(supplier)
+
+        /**
+         * Returns an `Eval` which calls `supplier` every time its value is needed.
+         */
+        @JvmStatic fun <A> always(supplier: Supplier<out A>): Eval<A> = Always(supplier)
+
+        /**
+         * Returns an `Eval` of the `Eval` returned by `next`, which is not called until the value
+         * is needed. Recursive definitions built with `defer` are evaluated in constant stack space.
+         */
+        @JvmStatic fun <A> defer(next: Supplier<out Eval<A>>): Eval<A> = Defer(next)
+
+        /**
+         * Evaluates `eval` in a loop. The continuations of the enclosing binds are kept on a
+         * stack, along with each memoizing `Later` being evaluated, which is given its value when
+         * it is reached again, so nested and recursive memoization doesn't grow the call stack.
+         */
+        private fun <A> evaluate(eval: Eval<A>): A {
+            var current: Eval<Any?> = eval
+            // continuations, innermost first, and the Laters waiting for their values
+            val stack = ArrayDeque<Any>()
+            loop@ while (true) {
+                var value: Any? = when (current) {
+                    is Now -> current.value
+                    is Always -> current.supplier.get()
+                    is Later -> {
+                        val pending = current.pending()
+                        if (pending != null) {
+                            stack.push(current)
+                            current = pending
+                            continue@loop
+                        }
+                        current.get()
+                    }
+                    is Defer -> {
+                        current = current.next.get()
+                        continue@loop
+                    }
+                    is FlatMap<*, *> -> {
+                        stack.push(current.mapper)
+                        current = current.source as Eval<Any?>
+                        continue@loop
+                    }
+                }
+                while (true) {
+                    val next = stack.poll() ?: return value as A
+                    if (next is Later<*>) {
+                        value = (next as Later<Any?>).store(value)
+                    } else {
+                        current = (next as Function<Any?, out Eval<Any?>>).apply(value)
+                        break
+                    }
+                }
+            }
+        }
+    }
+}
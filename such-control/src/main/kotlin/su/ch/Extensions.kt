@@ -0,0 +1,88 @@
+@file:JvmName("Extensions")
+@file:Suppress("UNCHECKED_CAST")
+
+package su.ch
+
+/*
+ * Inline versions of the common operations on [Maybe] and [Either], for Kotlin callers. Each
+ * compiles to a branch on the subclass at the call site, with the lambda inlined into it, so
+ * that no function object is allocated and no interface is called. The `Monad` methods, which
+ * take a `java.util.function.Function`, are unchanged.
+ */
+
+/**
+ * Applies `mapper` to the value of a [Maybe.Just]. [Maybe.Nothing] is returned as it is.
+ */
+inline fun <A, B> Maybe<A>.mapInline(mapper: (A) -> B): Maybe<B> =
+        when (this) {
+            is Maybe.Just -> Maybe.Just(mapper(get()))
+            is Maybe.Nothing -> this as Maybe<B>
+        }
+
+/**
+ * Applies `mapper` to the value of a [Maybe.Just], returning its result. [Maybe.Nothing] is
+ * returned as it is.
+ */
+inline fun <A, B> Maybe<A>.flatMapInline(mapper: (A) -> Maybe<B>): Maybe<B> =
+        when (this) {
+            is Maybe.Just -> mapper(get())
+            is Maybe.Nothing -> this as Maybe<B>
+        }
+
+/**
+ * Returns the result of `ifNothing` for [Maybe.Nothing], or of `ifJust` for the value of a
+ * [Maybe.Just].
+ */
+inline fun <A, B> Maybe<A>.fold(ifNothing: () -> B, ifJust: (A) -> B): B =
+        when (this) {
+            is Maybe.Just -> ifJust(get())
+            is Maybe.Nothing -> ifNothing()
+        }
+
+/**
+ * Returns the value of a [Maybe.Just], or the result of `other` for [Maybe.Nothing].
+ */
+inline fun <A> Maybe<A>.getOrElse(other: () -> A): A =
+        when (this) {
+            is Maybe.Just -> get()
+            is Maybe.Nothing -> other()
+        }
+
+/**
+ * Applies `mapper` to the value of an [Either.Right]. An [Either.Left] is returned as it is.
+ */
+inline fun <L, R, B> Either<L, R>.mapInline(mapper: (R) -> B): Either<L, B> =
+        when (this) {
+            is Either.Right -> Either.Right(mapper(get()))
+            is Either.Left -> this as Either<L, B>
+        }
+
+/**
+ * Applies `mapper` to the value of an [Either.Right], returning its result. An [Either.Left]
+ * is returned as it is.
+ */
+inline fun <L, R, B> Either<L, R>.flatMapInline(mapper: (R) -> Either<L, B>): Either<L, B> =
+        when (this) {
+            is Either.Right -> mapper(get())
+            is Either.Left -> this as Either<L, B>
+        }
+
+/**
+ * Returns the result of `ifLeft` for the error of an [Either.Left], or of `ifRight` for the
+ * value of an [Either.Right].
+ */
+inline fun <L, R, B> Either<L, R>.fold(ifLeft: (L) -> B, ifRight: (R) -> B): B =
+        when (this) {
+            is Either.Right -> ifRight(get())
+            is Either.Left -> ifLeft(error)
+        }
+
+/**
+ * Returns the value of an [Either.Right], or the result of `other` for the error of an
+ * [Either.Left].
+ */
+inline fun <L, R> Either<L, R>.getOrElse(other: (L) -> R): R =
+        when (this) {
+            is Either.Right -> get()
+            is Either.Left -> other(error)
+        }
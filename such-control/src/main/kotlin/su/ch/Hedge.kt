@@ -0,0 +1,173 @@
+package su.ch
+
+import su.ch.annotation.Experimental
+import su.ch.time.Stopwatch
+import java.time.Duration
+import java.util.Arrays
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.Executor
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.TimeoutException
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.atomic.AtomicLongArray
+import java.util.concurrent.atomic.LongAdder
+import java.util.function.Function
+import javax.annotation.concurrent.ThreadSafe
+
+/**
+ * Runs an action of a [Try] speculatively. The action is started on an [Executor], and if it
+ * hasn't finished within a threshold a second attempt is started alongside it. The first
+ * attempt to succeed is taken and the other is cancelled, with interruption. The stage only
+ * fails if the first attempt fails before the second is started, or if both fail.
+ *
+ * The threshold is either fixed, or a percentile of the latency of the actions which have
+ * succeeded recently, each timed with a [Stopwatch] from the start of its first attempt, whichever
+ * attempt won. One `Hedge` should be shared by every
+ * pipeline calling the same service, so that the percentile reflects all of them. Only
+ * idempotent actions should be hedged.
+ *
+ * # Example Usage
+ *
+ * ```
+ * val hedge = Hedge.percentile(0.95, 1000, executor)
+ *
+ * Try.with(key)
+ *         .doAction(Function { cache.read(it) }, hedge)
+ *         .orRecover(BiFunction { e, k -> log(k, e) })
+ * ```
+ */
+@ThreadSafe @Experimental
+class Hedge private constructor(
+        private val executor: Executor,
+        // the fixed threshold in nanoseconds, or -1 for a percentile
+        private val fixed: Long,
+        private val percentile: Double,
+        window: Int) {
+
+    // the latest latencies in nanoseconds, as a ring buffer
+    private val latencies = AtomicLongArray(window)
+    private val recorded = AtomicLong()
+    // the threshold is recalculated after every `refresh` latencies are recorded
+    private val refresh = Math.max(1, window / 16)
+    @Volatile private var threshold = if (fixed >= 0) fixed else Long.MAX_VALUE
+
+    private val calls = LongAdder()
+    private val hedges = LongAdder()
+    private val hedgeWins = LongAdder()
+
+    /**
+     * Returns the time after which a second attempt is started. A percentile threshold is
+     * unlimited until enough latencies have been recorded.
+     */
+    fun threshold(): Duration = Duration.ofNanos(threshold)
+
+    /**
+     * Returns the number of actions run.
+     */
+    fun calls(): Long = calls.sum()
+
+    /**
+     * Returns the number of actions for which a second attempt was started.
+     */
+    fun hedges(): Long = hedges.sum()
+
+    /**
+     * Returns the number of actions for which the second attempt succeeded first.
+     */
+    fun hedgeWins(): Long = hedgeWins.sum()
+
+    /**
+     * Runs `function` on `value` as described above, and returns the result of the winning
+     * attempt.
+     */
+    internal fun <A> run(function: Function<A, *>, value: A): Any? {
+        calls.increment()
+        val winner = CompletableFuture<Any?>()
+        val launched = AtomicInteger(1)
+        val failed = AtomicInteger()
+        // set by the first attempt to succeed, before it completes `winner`, to FIRST or SECOND
+        val won = AtomicInteger(NONE)
+        // the latency of a hedged action includes the time before the second attempt started
+        val stopwatch = Stopwatch.runningStopwatch()
+
+        fun attempt(hedged: Boolean) = CancellableTask(Runnable {
+            val failure = try {
+                val result = function.apply(value)
+                result as? Try.Signal ?: if (won.compareAndSet(NONE, if (hedged) SECOND else FIRST)) {
+                    record(stopwatch.elapsed().toNanos())
+                    if (hedged) hedgeWins.increment()
+                    winner.complete(result)
+                    null
+                } else null
+            } catch (e: Throwable) {
+                // the executor may swallow it, leaving `winner` incomplete
+                e
+            }
+            if (failure != null && failed.incrementAndGet() >= launched.get()) winner.completeExceptionally(failure)
+        })
+
+        val first = attempt(false)
+        var second: CancellableTask? = null
+        executor.execute(first)
+        try {
+            return try {
+                winner.get(threshold, TimeUnit.NANOSECONDS)
+            } catch (e: TimeoutException) {
+                hedges.increment()
+                launched.incrementAndGet()
+                second = attempt(true)
+                executor.execute(second)
+                winner.get()
+            }
+        } catch (e: InterruptedException) {
+            first.cancel()
+            second?.cancel()
+            Thread.currentThread().interrupt()
+            throw e
+        } catch (e: ExecutionException) {
+            throw e.cause ?: e
+        } finally {
+            // only the losing attempt is interrupted; the winner may not have returned yet
+            if (won.get() != FIRST) first.cancel()
+            if (won.get() != SECOND) second?.cancel()
+        }
+    }
+
+    private fun record(nanos: Long) {
+        if (fixed >= 0) return
+        val n = recorded.getAndIncrement()
+        latencies.set((n % latencies.length()).toInt(), nanos)
+        if ((n + 1) % refresh == 0L) {
+            val samples = LongArray(Math.min(n + 1, latencies.length().toLong()).toInt()) { latencies.get(it) }
+            Arrays.sort(samples)
+            threshold = samples[Math.max(0, Math.ceil(percentile * samples.size).toInt() - 1)]
+        }
+    }
+
+    companion object {
+
+        private const val NONE = 0
+        private const val FIRST = 1
+        private const val SECOND = 2
+
+        /**
+         * Returns a `Hedge` which starts a second attempt on `executor` after `threshold`.
+         */
+        @JvmStatic
+        fun after(threshold: Duration, executor: Executor): Hedge = Hedge(executor, threshold.toNanos(), 1.0, 1)
+
+        /**
+         * Returns a `Hedge` which starts a second attempt on `executor` once an action has taken
+         * longer than the given `percentile`, between 0 and 1, of the latest `window` successful
+         * attempts.
+         */
+        @JvmStatic
+        fun percentile(percentile: Double, window: Int, executor: Executor): Hedge {
+            require(percentile > 0 && percentile <= 1) { "percentile must be in (0, 1]: $percentile" }
+            require(window > 0) { "window must be positive: $window" }
+            return Hedge(executor, -1, percentile, window)
+        }
+    }
+}
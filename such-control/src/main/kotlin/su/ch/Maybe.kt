@@ -5,7 +5,14 @@ package su.ch
 import su.ch.annotation.Beta
 import su.ch.framework.Applicative
 import su.ch.framework.Monad
+import su.ch.framework.Trampoline
+import java.util.concurrent.CompletionStage
+import java.util.concurrent.Executor
+import java.util.concurrent.ForkJoinPool
+import java.util.function.BiFunction
 import java.util.function.Function
+import java.util.function.Predicate
+import java.util.function.Supplier
 
 @Beta
 sealed class Maybe<A> constructor(value: A) : Monad<A, Maybe<A>>(value) {
@@ -14,27 +21,100 @@ sealed class Maybe<A> constructor(value: A) : Monad<A, Maybe<A>>(value) {
         return Just(value)
     }
 
-    class Just<A>(value: A) : Maybe<A>(value)
+    class Just<A>(value: A) : Maybe<A>(value) {
 
-    class Nothing<A> : Maybe<A>(Unit.Unit as A) {
+        // the same as `create(mapper).apply(this)`, without wrapping `mapper` in a `Just` first
+        override fun <B> map(mapper: Function<B, *>): Monad<*, *> = Just((mapper as Function<A, *>).apply(value))
+    }
+
+    /**
+     * The absent value. There is only one instance, which [Maybe.Nothing] returns whatever the
+     * type argument, so that no `Nothing` is ever allocated.
+     */
+    class Nothing<A> private constructor() : Maybe<A>(Unit.Unit as A) {
 
-        override fun <B> map(mapper: Function<B, *>): Maybe<A> = Nothing()
+        override fun <B> map(mapper: Function<B, *>): Maybe<A> = this
 
-        override fun <B> apply(functor: Applicative<B, Monad<*, *>>): Maybe<A> = Nothing()
+        override fun <B> apply(functor: Applicative<B, Monad<*, *>>): Maybe<A> = this
 
-        override fun <B> flatMap(mapper: Function<A, Monad<B, *>>): Maybe<A> = Nothing()
+        override fun <B> flatMap(mapper: Function<A, Monad<B, *>>): Maybe<A> = this
+
+        override fun <V> flatMapLater(mapper: Function<A, out Trampoline<Monad<V, *>>>): Trampoline<Maybe<A>> =
+                Trampoline.done(this)
 
         override fun toString(): String = ToString(this).toString()
+
+        internal companion object {
+            val instance: Nothing<Any?> = Nothing()
+        }
     }
 
     companion object {
         @JvmStatic fun <A> Just(value: A?): Maybe<A> =
                 when (value) {
-                    null -> Maybe.Nothing()
+                    null -> Nothing.instance as Nothing<A>
                     else -> Maybe.Just(value)
                 }
 
-        @JvmStatic fun <A> Nothing() : Nothing<A> = Maybe.Nothing()
+        @JvmStatic fun <A> Nothing() : Nothing<A> = Nothing.instance as Nothing<A>
+
+        /**
+         * Returns a [Just] of the values of `maybes`, in order, or [Nothing] if any of them is
+         * `Nothing`. Stops at the first `Nothing`.
+         */
+        @JvmStatic fun <A> sequence(maybes: Collection<Maybe<A>>): Maybe<List<A>> =
+                traverse(maybes, Function { it })
+
+        /**
+         * Like [sequence], but the elements of `maybes` are checked in parallel on `pool`.
+         */
+        @JvmStatic fun <A> sequence(maybes: Collection<Maybe<A>>, pool: ForkJoinPool): Maybe<List<A>> =
+                traverse(maybes, Function { it }, pool)
+
+        /**
+         * Applies `mapper` to each of `items`, in order, and returns a [Just] of the values of
+         * the results, or [Nothing] if any of them is `Nothing`. Stops at the first `Nothing`.
+         */
+        @JvmStatic fun <A, B> traverse(items: Collection<A>, mapper: Function<in A, out Maybe<B>>): Maybe<List<B>> =
+                toMaybe(Traversal.sequential(items, mapper, isNothing))
+
+        /**
+         * Like [traverse], but `mapper` is applied in parallel on `pool`. Once a `Nothing` is
+         * found, the items not yet reached are skipped.
+         */
+        @JvmStatic fun <A, B> traverse(items: Collection<A>, mapper: Function<in A, out Maybe<B>>, pool: ForkJoinPool): Maybe<List<B>> =
+                toMaybe(Traversal.parallel(items, mapper, isNothing, pool))
+
+        /**
+         * Runs `a` and `b` at the same time on `executor`, and completes with a [Just] of
+         * `combiner` applied to their values, or [Nothing] as soon as either of them returns
+         * `Nothing`.
+         */
+        @JvmStatic fun <A, B, C> zipPar(
+                a: Supplier<out Maybe<A>>,
+                b: Supplier<out Maybe<B>>,
+                combiner: BiFunction<in A, in B, out C>,
+                executor: Executor): CompletionStage<Maybe<C>> =
+                mapN(listOf(a, b) as List<Supplier<out Maybe<Any?>>>, Function { values -> combiner.apply(values[0] as A, values[1] as B) }, executor)
+
+        /**
+         * Runs each of `suppliers` at the same time on `executor`, and completes with a [Just]
+         * of `combiner` applied to their values, in order, or [Nothing] as soon as any of them
+         * returns `Nothing`. The suppliers still waiting to run are then cancelled, and those
+         * running are interrupted.
+         */
+        @JvmStatic fun <A, B> mapN(
+                suppliers: List<Supplier<out Maybe<out A>>>,
+                combiner: Function<in List<@JvmSuppressWildcards A>, out B>,
+                executor: Executor): CompletionStage<Maybe<B>> =
+                Zip.zip(suppliers, isNothing, executor).thenApply<Maybe<B>> { zipped ->
+                    if (zipped is Nothing<*>) zipped as Maybe<B> else Maybe.Just(combiner.apply(zipped as List<A>))
+                }
+
+        private val isNothing = Predicate<Monad<*, *>> { it is Nothing }
+
+        private fun <B> toMaybe(traversed: Any): Maybe<List<B>> =
+                if (traversed is Nothing<*>) traversed as Maybe<List<B>> else Maybe.Just(traversed as List<B>)
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,147 @@
+@file:Suppress("UNCHECKED_CAST")
+
+package su.ch
+
+import su.ch.annotation.Beta
+import su.ch.annotation.Pure
+import java.util.BitSet
+import java.util.function.BiFunction
+import java.util.function.Function
+import java.util.function.ObjIntConsumer
+
+/**
+ * A fixed number of [Maybe] values stored in columns: a bitmap of which are present and an
+ * array of their values. No [Maybe.Just] is allocated unless one is asked for with [toMaybe],
+ * so a large batch takes little more memory than its values. [map], [fold] and [forEach] work
+ * over the present values only, using the bitmap to skip the absent ones.
+ *
+ * Every element is [Maybe.Nothing] until it is [set]. A `MaybeArray` is not thread-safe.
+ *
+ * @see MaybeIntArray
+ * @see MaybeLongArray
+ * @see MaybeDoubleArray
+ */
+@Beta
+class MaybeArray<A>(val size: Int) {
+
+    private val present = BitSet(size)
+    private val values = arrayOfNulls<Any?>(size)
+
+    /**
+     * Returns `true` if element `i` is present.
+     */
+    @Pure fun isPresent(i: Int): Boolean = present.get(check(i))
+
+    /**
+     * Returns the value of element `i`, which must be present.
+     */
+    @Pure fun get(i: Int): A {
+        if (!isPresent(i)) throw NoSuchElementException("element $i is absent")
+        return values[i] as A
+    }
+
+    /**
+     * Returns the value of element `i`, or `other` if it is absent.
+     */
+    @Pure fun getOrElse(i: Int, other: A): A = if (isPresent(i)) values[i] as A else other
+
+    /**
+     * Makes element `i` present, with `value`.
+     */
+    fun set(i: Int, value: A) {
+        values[check(i)] = value
+        present.set(i)
+    }
+
+    /**
+     * Makes element `i` absent.
+     */
+    fun clear(i: Int) {
+        values[check(i)] = null
+        present.clear(i)
+    }
+
+    /**
+     * Returns the number of present elements.
+     */
+    @Pure fun count(): Int = present.cardinality()
+
+    /**
+     * Returns the index of the first present element at or after `from`, or -1 if there is none.
+     * Together with [get], this iterates over the present elements without allocating.
+     */
+    @Pure fun nextPresent(from: Int): Int = if (from >= size) -1 else present.nextSetBit(from).let { if (it >= size) -1 else it }
+
+    /**
+     * Returns element `i` as a [Maybe].
+     */
+    @Pure fun toMaybe(i: Int): Maybe<A> = if (isPresent(i)) Maybe.Just(values[i] as A) else Maybe.Nothing()
+
+    /**
+     * Returns a new `MaybeArray` holding the result of `mapper` for each present element, and
+     * absent where this one is.
+     */
+    @Pure fun <B> map(mapper: Function<in A, out B>): MaybeArray<B> {
+        val mapped = MaybeArray<B>(size)
+        mapped.present.or(present)
+        var i = present.nextSetBit(0)
+        while (i in 0 until size) {
+            mapped.values[i] = mapper.apply(values[i] as A)
+            i = present.nextSetBit(i + 1)
+        }
+        return mapped
+    }
+
+    /**
+     * Combines the present values, in order, with `accumulator`, starting from `identity`.
+     */
+    @Pure fun <B> fold(identity: B, accumulator: BiFunction<B, in A, B>): B {
+        var result = identity
+        var i = present.nextSetBit(0)
+        while (i in 0 until size) {
+            result = accumulator.apply(result, values[i] as A)
+            i = present.nextSetBit(i + 1)
+        }
+        return result
+    }
+
+    /**
+     * Calls `action` with each present value and its index, in order.
+     */
+    fun forEach(action: ObjIntConsumer<in A>) {
+        var i = present.nextSetBit(0)
+        while (i in 0 until size) {
+            action.accept(values[i] as A, i)
+            i = present.nextSetBit(i + 1)
+        }
+    }
+
+    /**
+     * Returns the elements as a list of [Maybe] values.
+     */
+    @Pure fun toList(): List<Maybe<A>> = List(size) { toMaybe(it) }
+
+    override fun equals(other: Any?): Boolean =
+            other is MaybeArray<*> && size == other.size && present == other.present && values.contentEquals(other.values)
+
+    override fun hashCode(): Int = 31 * present.hashCode() + values.contentHashCode()
+
+    override fun toString(): String = ToString(this).addValue(toList()).toString()
+
+    private fun check(i: Int): Int {
+        if (i < 0 || i >= size) throw IndexOutOfBoundsException("index $i, size $size")
+        return i
+    }
+
+    companion object {
+
+        /**
+         * Returns a new `MaybeArray` holding the elements of `maybes`.
+         */
+        @JvmStatic fun <A> of(maybes: List<Maybe<A>>): MaybeArray<A> {
+            val array = MaybeArray<A>(maybes.size)
+            maybes.forEachIndexed { i, maybe -> if (maybe is Maybe.Just) array.set(i, maybe.get()) }
+            return array
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package su.ch
+
+import su.ch.annotation.Beta
+import su.ch.annotation.Pure
+import java.util.OptionalDouble
+import java.util.function.DoubleFunction
+import java.util.function.DoubleSupplier
+import java.util.function.DoubleUnaryOperator
+
+/**
+ * A [Maybe] specialised to a `double` value. A [Just] holds its value unboxed, and [map],
+ * [flatMap] and [orElse] work with primitive functions, so that a present value does not
+ * allocate a box per step. There is a single [Nothing], which is never allocated again.
+ *
+ * `MaybeDouble` converts to and from `Maybe<Double>` with [toMaybe] and [fromMaybe], and to and from
+ * `OptionalDouble` with [toOptional] and [fromOptional].
+ */
+@Beta
+sealed class MaybeDouble {
+
+    /**
+     * Returns `true` if this is a [Just] value.
+     */
+    @Pure abstract fun isPresent(): Boolean
+
+    /**
+     * Applies `mapper` to the value of a [Just]. [Nothing] is returned as it is.
+     */
+    @Pure abstract fun map(mapper: DoubleUnaryOperator): MaybeDouble
+
+    /**
+     * Applies `mapper` to the value of a [Just], returning its result. [Nothing] is returned as
+     * it is.
+     */
+    @Pure abstract fun flatMap(mapper: DoubleFunction<MaybeDouble>): MaybeDouble
+
+    /**
+     * Returns the value of a [Just], or `other` if this is [Nothing].
+     */
+    @Pure abstract fun orElse(other: Double): Double
+
+    /**
+     * Returns the value of a [Just], or the result of `other` if this is [Nothing].
+     */
+    @Pure abstract fun orElseGet(other: DoubleSupplier): Double
+
+    /**
+     * Returns the equivalent (boxed) [Maybe].
+     */
+    @Pure abstract fun toMaybe(): Maybe<Double>
+
+    /**
+     * Returns the equivalent [OptionalDouble].
+     */
+    @Pure abstract fun toOptional(): OptionalDouble
+
+    /**
+     * Instance of [MaybeDouble] which holds a value.
+     */
+    class Just(val value: Double) : MaybeDouble() {
+
+        override fun isPresent(): Boolean = true
+
+        override fun map(mapper: DoubleUnaryOperator): MaybeDouble = Just(mapper.applyAsDouble(value))
+
+        override fun flatMap(mapper: DoubleFunction<MaybeDouble>): MaybeDouble = mapper.apply(value)
+
+        override fun orElse(other: Double): Double = value
+
+        override fun orElseGet(other: DoubleSupplier): Double = value
+
+        override fun toMaybe(): Maybe<Double> = Maybe.Just(value)
+
+        override fun toOptional(): OptionalDouble = OptionalDouble.of(value)
+
+        override fun equals(other: Any?): Boolean = other is Just && java.lang.Double.compare(value, other.value) == 0
+
+        override fun hashCode(): Int = java.lang.Double.hashCode(value)
+
+        override fun toString(): String =
+                ToString(this)
+                        .addValue(value)
+                        .toString()
+    }
+
+    /**
+     * The absent value. There is only one instance, which [MaybeDouble.Nothing] returns.
+     */
+    class Nothing private constructor() : MaybeDouble() {
+
+        override fun isPresent(): Boolean = false
+
+        override fun map(mapper: DoubleUnaryOperator): MaybeDouble = this
+
+        override fun flatMap(mapper: DoubleFunction<MaybeDouble>): MaybeDouble = this
+
+        override fun orElse(other: Double): Double = other
+
+        override fun orElseGet(other: DoubleSupplier): Double = other.getAsDouble()
+
+        override fun toMaybe(): Maybe<Double> = Maybe.Nothing()
+
+        override fun toOptional(): OptionalDouble = OptionalDouble.empty()
+
+        override fun toString(): String = ToString(this).toString()
+
+        internal companion object {
+            val instance = Nothing()
+        }
+    }
+
+    companion object {
+
+        /**
+         * Returns a new [Just] value.
+         */
+        @JvmStatic fun Just(value: Double): MaybeDouble = MaybeDouble.Just(value)
+
+        /**
+         * Returns the [Nothing] value.
+         */
+        @JvmStatic fun Nothing(): MaybeDouble = Nothing.instance
+
+        /**
+         * Returns the [MaybeDouble] equivalent to `maybe`.
+         */
+        @JvmStatic @Pure
+        fun fromMaybe(maybe: Maybe<Double>): MaybeDouble =
+                when (maybe) {
+                    is Maybe.Just -> Just(maybe.get())
+                    is Maybe.Nothing -> Nothing.instance
+                }
+
+        /**
+         * Returns the [MaybeDouble] equivalent to `optional`.
+         */
+        @JvmStatic @Pure
+        fun fromOptional(optional: OptionalDouble): MaybeDouble =
+                if (optional.isPresent) Just(optional.getAsDouble()) else Nothing.instance
+    }
+}
@@ -0,0 +1,141 @@
+package su.ch
+
+import su.ch.annotation.Beta
+import su.ch.annotation.Pure
+import java.util.OptionalInt
+import java.util.function.IntFunction
+import java.util.function.IntSupplier
+import java.util.function.IntUnaryOperator
+
+/**
+ * A [Maybe] specialised to a `int` value. A [Just] holds its value unboxed, and [map],
+ * [flatMap] and [orElse] work with primitive functions, so that a present value does not
+ * allocate a box per step. There is a single [Nothing], which is never allocated again.
+ *
+ * `MaybeInt` converts to and from `Maybe<Int>` with [toMaybe] and [fromMaybe], and to and from
+ * `OptionalInt` with [toOptional] and [fromOptional].
+ */
+@Beta
+sealed class MaybeInt {
+
+    /**
+     * Returns `true` if this is a [Just] value.
+     */
+    @Pure abstract fun isPresent(): Boolean
+
+    /**
+     * Applies `mapper` to the value of a [Just]. [Nothing] is returned as it is.
+     */
+    @Pure abstract fun map(mapper: IntUnaryOperator): MaybeInt
+
+    /**
+     * Applies `mapper` to the value of a [Just], returning its result. [Nothing] is returned as
+     * it is.
+     */
+    @Pure abstract fun flatMap(mapper: IntFunction<MaybeInt>): MaybeInt
+
+    /**
+     * Returns the value of a [Just], or `other` if this is [Nothing].
+     */
+    @Pure abstract fun orElse(other: Int): Int
+
+    /**
+     * Returns the value of a [Just], or the result of `other` if this is [Nothing].
+     */
+    @Pure abstract fun orElseGet(other: IntSupplier): Int
+
+    /**
+     * Returns the equivalent (boxed) [Maybe].
+     */
+    @Pure abstract fun toMaybe(): Maybe<Int>
+
+    /**
+     * Returns the equivalent [OptionalInt].
+     */
+    @Pure abstract fun toOptional(): OptionalInt
+
+    /**
+     * Instance of [MaybeInt] which holds a value.
+     */
+    class Just(val value: Int) : MaybeInt() {
+
+        override fun isPresent(): Boolean = true
+
+        override fun map(mapper: IntUnaryOperator): MaybeInt = Just(mapper.applyAsInt(value))
+
+        override fun flatMap(mapper: IntFunction<MaybeInt>): MaybeInt = mapper.apply(value)
+
+        override fun orElse(other: Int): Int = value
+
+        override fun orElseGet(other: IntSupplier): Int = value
+
+        override fun toMaybe(): Maybe<Int> = Maybe.Just(value)
+
+        override fun toOptional(): OptionalInt = OptionalInt.of(value)
+
+        override fun equals(other: Any?): Boolean = other is Just && value == other.value
+
+        override fun hashCode(): Int = java.lang.Integer.hashCode(value)
+
+        override fun toString(): String =
+                ToString(this)
+                        .addValue(value)
+                        .toString()
+    }
+
+    /**
+     * The absent value. There is only one instance, which [MaybeInt.Nothing] returns.
+     */
+    class Nothing private constructor() : MaybeInt() {
+
+        override fun isPresent(): Boolean = false
+
+        override fun map(mapper: IntUnaryOperator): MaybeInt = this
+
+        override fun flatMap(mapper: IntFunction<MaybeInt>): MaybeInt = this
+
+        override fun orElse(other: Int): Int = other
+
+        override fun orElseGet(other: IntSupplier): Int = other.getAsInt()
+
+        override fun toMaybe(): Maybe<Int> = Maybe.Nothing()
+
+        override fun toOptional(): OptionalInt = OptionalInt.empty()
+
+        override fun toString(): String = ToString(this).toString()
+
+        internal companion object {
+            val instance = Nothing()
+        }
+    }
+
+    companion object {
+
+        /**
+         * Returns a new [Just] value.
+         */
+        @JvmStatic fun Just(value: Int): MaybeInt = MaybeInt.Just(value)
+
+        /**
+         * Returns the [Nothing] value.
+         */
+        @JvmStatic fun Nothing(): MaybeInt = Nothing.instance
+
+        /**
+         * Returns the [MaybeInt] equivalent to `maybe`.
+         */
+        @JvmStatic @Pure
+        fun fromMaybe(maybe: Maybe<Int>): MaybeInt =
+                when (maybe) {
+                    is Maybe.Just -> Just(maybe.get())
+                    is Maybe.Nothing -> Nothing.instance
+                }
+
+        /**
+         * Returns the [MaybeInt] equivalent to `optional`.
+         */
+        @JvmStatic @Pure
+        fun fromOptional(optional: OptionalInt): MaybeInt =
+                if (optional.isPresent) Just(optional.getAsInt()) else Nothing.instance
+    }
+}
@@ -0,0 +1,147 @@
+package su.ch
+
+import su.ch.annotation.Beta
+import su.ch.annotation.Pure
+import java.util.BitSet
+import java.util.function.IntBinaryOperator
+import java.util.function.IntConsumer
+import java.util.function.IntUnaryOperator
+
+/**
+ * A [MaybeArray] specialised to `int` values, which are held unboxed in an `int` array alongside
+ * the bitmap of which are present. [map], [fold] and [forEach] work with primitive functions
+ * over the present values only.
+ *
+ * Every element is absent until it is [set]. A `MaybeIntArray` is not thread-safe.
+ */
+@Beta
+class MaybeIntArray(val size: Int) {
+
+    private val present = BitSet(size)
+    private val values = IntArray(size)
+
+    /**
+     * Returns `true` if element `i` is present.
+     */
+    @Pure fun isPresent(i: Int): Boolean = present.get(check(i))
+
+    /**
+     * Returns the value of element `i`, which must be present.
+     */
+    @Pure fun get(i: Int): Int {
+        if (!isPresent(i)) throw NoSuchElementException("element $i is absent")
+        return values[i]
+    }
+
+    /**
+     * Returns the value of element `i`, or `other` if it is absent.
+     */
+    @Pure fun getOrElse(i: Int, other: Int): Int = if (isPresent(i)) values[i] else other
+
+    /**
+     * Makes element `i` present, with `value`.
+     */
+    fun set(i: Int, value: Int) {
+        values[check(i)] = value
+        present.set(i)
+    }
+
+    /**
+     * Makes element `i` absent.
+     */
+    fun clear(i: Int) {
+        values[check(i)] = 0
+        present.clear(i)
+    }
+
+    /**
+     * Returns the number of present elements.
+     */
+    @Pure fun count(): Int = present.cardinality()
+
+    /**
+     * Returns the index of the first present element at or after `from`, or -1 if there is none.
+     */
+    @Pure fun nextPresent(from: Int): Int = if (from >= size) -1 else present.nextSetBit(from).let { if (it >= size) -1 else it }
+
+    /**
+     * Returns element `i` as a [MaybeInt].
+     */
+    @Pure fun toMaybeInt(i: Int): MaybeInt = if (isPresent(i)) MaybeInt.Just(values[i]) else MaybeInt.Nothing()
+
+    /**
+     * Returns a new `MaybeIntArray` holding the result of `mapper` for each present element, and
+     * absent where this one is.
+     */
+    @Pure fun map(mapper: IntUnaryOperator): MaybeIntArray {
+        val mapped = MaybeIntArray(size)
+        mapped.present.or(present)
+        var i = present.nextSetBit(0)
+        while (i in 0 until size) {
+            mapped.values[i] = mapper.applyAsInt(values[i])
+            i = present.nextSetBit(i + 1)
+        }
+        return mapped
+    }
+
+    /**
+     * Combines the present values, in order, with `accumulator`, starting from `identity`.
+     */
+    @Pure fun fold(identity: Int, accumulator: IntBinaryOperator): Int {
+        var result = identity
+        var i = present.nextSetBit(0)
+        while (i in 0 until size) {
+            result = accumulator.applyAsInt(result, values[i])
+            i = present.nextSetBit(i + 1)
+        }
+        return result
+    }
+
+    /**
+     * Calls `action` with each present value, in order.
+     */
+    fun forEach(action: IntConsumer) {
+        var i = present.nextSetBit(0)
+        while (i in 0 until size) {
+            action.accept(values[i])
+            i = present.nextSetBit(i + 1)
+        }
+    }
+
+    /**
+     * Returns the elements as a [MaybeArray] of boxed values.
+     */
+    @Pure fun boxed(): MaybeArray<Int> {
+        val boxed = MaybeArray<Int>(size)
+        var i = present.nextSetBit(0)
+        while (i in 0 until size) {
+            boxed.set(i, values[i])
+            i = present.nextSetBit(i + 1)
+        }
+        return boxed
+    }
+
+    override fun equals(other: Any?): Boolean =
+            other is MaybeIntArray && size == other.size && present == other.present && values.contentEquals(other.values)
+
+    override fun hashCode(): Int = 31 * present.hashCode() + values.contentHashCode()
+
+    override fun toString(): String = ToString(this).addValue(boxed().toList()).toString()
+
+    private fun check(i: Int): Int {
+        if (i < 0 || i >= size) throw IndexOutOfBoundsException("index $i, size $size")
+        return i
+    }
+
+    companion object {
+
+        /**
+         * Returns a new `MaybeIntArray` holding the elements of `maybes`.
+         */
+        @JvmStatic fun of(maybes: List<MaybeInt>): MaybeIntArray {
+            val array = MaybeIntArray(maybes.size)
+            maybes.forEachIndexed { i, maybe -> if (maybe is MaybeInt.Just) array.set(i, maybe.value) }
+            return array
+        }
+    }
+}
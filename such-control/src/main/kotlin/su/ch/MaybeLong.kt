@@ -0,0 +1,141 @@
+package su.ch
+
+import su.ch.annotation.Beta
+import su.ch.annotation.Pure
+import java.util.OptionalLong
+import java.util.function.LongFunction
+import java.util.function.LongSupplier
+import java.util.function.LongUnaryOperator
+
+/**
+ * A [Maybe] specialised to a `long` value. A [Just] holds its value unboxed, and [map],
+ * [flatMap] and [orElse] work with primitive functions, so that a present value does not
+ * allocate a box per step. There is a single [Nothing], which is never allocated again.
+ *
+ * `MaybeLong` converts to and from `Maybe<Long>` with [toMaybe] and [fromMaybe], and to and from
+ * `OptionalLong` with [toOptional] and [fromOptional].
+ */
+@Beta
+sealed class MaybeLong {
+
+    /**
+     * Returns `true` if this is a [Just] value.
+     */
+    @Pure abstract fun isPresent(): Boolean
+
+    /**
+     * Applies `mapper` to the value of a [Just]. [Nothing] is returned as it is.
+     */
+    @Pure abstract fun map(mapper: LongUnaryOperator): MaybeLong
+
+    /**
+     * Applies `mapper` to the value of a [Just], returning its result. [Nothing] is returned as
+     * it is.
+     */
+    @Pure abstract fun flatMap(mapper: LongFunction<MaybeLong>): MaybeLong
+
+    /**
+     * Returns the value of a [Just], or `other` if this is [Nothing].
+     */
+    @Pure abstract fun orElse(other: Long): Long
+
+    /**
+     * Returns the value of a [Just], or the result of `other` if this is [Nothing].
+     */
+    @Pure abstract fun orElseGet(other: LongSupplier): Long
+
+    /**
+     * Returns the equivalent (boxed) [Maybe].
+     */
+    @Pure abstract fun toMaybe(): Maybe<Long>
+
+    /**
+     * Returns the equivalent [OptionalLong].
+     */
+    @Pure abstract fun toOptional(): OptionalLong
+
+    /**
+     * Instance of [MaybeLong] which holds a value.
+     */
+    class Just(val value: Long) : MaybeLong() {
+
+        override fun isPresent(): Boolean = true
+
+        override fun map(mapper: LongUnaryOperator): MaybeLong = Just(mapper.applyAsLong(value))
+
+        override fun flatMap(mapper: LongFunction<MaybeLong>): MaybeLong = mapper.apply(value)
+
+        override fun orElse(other: Long): Long = value
+
+        override fun orElseGet(other: LongSupplier): Long = value
+
+        override fun toMaybe(): Maybe<Long> = Maybe.Just(value)
+
+        override fun toOptional(): OptionalLong = OptionalLong.of(value)
+
+        override fun equals(other: Any?): Boolean = other is Just && value == other.value
+
+        override fun hashCode(): Int = java.lang.Long.hashCode(value)
+
+        override fun toString(): String =
+                ToString(this)
+                        .addValue(value)
+                        .toString()
+    }
+
+    /**
+     * The absent value. There is only one instance, which [MaybeLong.Nothing] returns.
+     */
+    class Nothing private constructor() : MaybeLong() {
+
+        override fun isPresent(): Boolean = false
+
+        override fun map(mapper: LongUnaryOperator): MaybeLong = this
+
+        override fun flatMap(mapper: LongFunction<MaybeLong>): MaybeLong = this
+
+        override fun orElse(other: Long): Long = other
+
+        override fun orElseGet(other: LongSupplier): Long = other.getAsLong()
+
+        override fun toMaybe(): Maybe<Long> = Maybe.Nothing()
+
+        override fun toOptional(): OptionalLong = OptionalLong.empty()
+
+        override fun toString(): String = ToString(this).toString()
+
+        internal companion object {
+            val instance = Nothing()
+        }
+    }
+
+    companion object {
+
+        /**
+         * Returns a new [Just] value.
+         */
+        @JvmStatic fun Just(value: Long): MaybeLong = MaybeLong.Just(value)
+
+        /**
+         * Returns the [Nothing] value.
+         */
+        @JvmStatic fun Nothing(): MaybeLong = Nothing.instance
+
+        /**
+         * Returns the [MaybeLong] equivalent to `maybe`.
+         */
+        @JvmStatic @Pure
+        fun fromMaybe(maybe: Maybe<Long>): MaybeLong =
+                when (maybe) {
+                    is Maybe.Just -> Just(maybe.get())
+                    is Maybe.Nothing -> Nothing.instance
+                }
+
+        /**
+         * Returns the [MaybeLong] equivalent to `optional`.
+         */
+        @JvmStatic @Pure
+        fun fromOptional(optional: OptionalLong): MaybeLong =
+                if (optional.isPresent) Just(optional.getAsLong()) else Nothing.instance
+    }
+}
@@ -0,0 +1,188 @@
+package su.ch
+
+import su.ch.annotation.Experimental
+import su.ch.annotation.Pure
+import su.ch.time.Stopwatch
+import java.time.Duration
+import java.util.concurrent.ThreadLocalRandom
+import java.util.concurrent.TimeUnit
+import java.util.function.Function
+import java.util.function.Predicate
+import javax.annotation.concurrent.ThreadSafe
+
+/**
+ * Describes how a failed action of a [Try] is retried: how many attempts are made in all, how
+ * long to wait between them and how much time may be spent before giving up. A policy is
+ * immutable, so one may be shared by any number of pipelines.
+ *
+ * An action run under a policy with [Try.doAction] is retried until it succeeds, the attempts
+ * are used up or the next wait would overrun the budget. In the last two cases the stage fails
+ * with an [Exhausted], which the recoveries receive in the usual way and which records the
+ * last failure and the time spent. Whatever the outcome, the number of attempts and the time
+ * spent on them are reported to the [TryListener] of the `Try` with [TryListener.onRetry].
+ *
+ * Waits of the same length from many callers retrying at once keep them in step, so the
+ * [decorrelatedJitter] policy is usually the best choice for calls to a shared service.
+ *
+ * # Example Usage
+ *
+ * ```
+ * val policy = RetryPolicy.decorrelatedJitter(Duration.ofMillis(10), Duration.ofSeconds(1))
+ *         .withMaxAttempts(5)
+ *         .withBudget(Duration.ofSeconds(2))
+ *
+ * Try.with(request)
+ *         .doAction(Function { it.fetch() }, policy)
+ *         .orRecover(BiFunction { e, r -> r.abandon(e) })
+ * ```
+ */
+@ThreadSafe @Experimental
+class RetryPolicy private constructor(
+        private val backoff: Backoff,
+        /** The largest number of times an action is run, including the first. */
+        val maxAttempts: Int,
+        /** The time that may be spent on all attempts of an action, or `null` if unlimited. */
+        val budget: Duration?,
+        private val retryable: Predicate<in Exception>) {
+
+    /**
+     * Returns a policy like this one, which makes at most `maxAttempts` attempts.
+     */
+    @Pure
+    fun withMaxAttempts(maxAttempts: Int): RetryPolicy {
+        require(maxAttempts > 0) { "maxAttempts must be positive: $maxAttempts" }
+        return RetryPolicy(backoff, maxAttempts, budget, retryable)
+    }
+
+    /**
+     * Returns a policy like this one, which doesn't start a wait that would take the time spent
+     * on an action beyond `budget`.
+     */
+    @Pure
+    fun withBudget(budget: Duration): RetryPolicy = RetryPolicy(backoff, maxAttempts, budget, retryable)
+
+    /**
+     * Returns a policy like this one, which only retries failures matching `retryable`. Others
+     * fail the stage at once, as they would without a policy.
+     */
+    @Pure
+    fun retryingOn(retryable: Predicate<in Exception>): RetryPolicy = RetryPolicy(backoff, maxAttempts, budget, retryable)
+
+    /**
+     * Returns the wait before the attempt following attempt number `attempt`, counting from one,
+     * given that the previous wait was `previous`.
+     */
+    fun delay(attempt: Int, previous: Duration): Duration = Duration.ofNanos(backoff.delay(attempt, previous.toNanos()))
+
+    /**
+     * Runs `function` on `value`, retrying it as this policy allows, and reports the attempts to
+     * `listener` as those of `stage`. Returns the result of the first attempt to succeed, or an
+     * [Exhausted] signal.
+     */
+    internal fun <A> run(function: Function<A, *>, value: A, listener: TryListener, stage: Int): Any? {
+        val stopwatch = Stopwatch.runningStopwatch()
+        var attempt = 1
+        var delay = 0L
+        try {
+            while (true) {
+                val failure = try {
+                    val result = function.apply(value)
+                    result as? Try.Signal ?: return result
+                } catch (e: Exception) {
+                    e
+                }
+                if (!retryable.test(failure)) throw failure
+                if (attempt == maxAttempts) return Exhausted(failure, attempt, stopwatch.elapsed(), budget)
+                delay = backoff.delay(attempt, delay)
+                val elapsed = stopwatch.elapsed()
+                if (budget != null && elapsed.toNanos() + delay > budget.toNanos()) return Exhausted(failure, attempt, elapsed, budget)
+                try {
+                    TimeUnit.NANOSECONDS.sleep(delay)
+                } catch (e: InterruptedException) {
+                    Thread.currentThread().interrupt()
+                    return Exhausted(failure, attempt, stopwatch.elapsed(), budget)
+                }
+                attempt++
+            }
+        } finally {
+            listener.onRetry(stage, attempt, stopwatch.elapsed())
+        }
+    }
+
+    /**
+     * The failure of an action which was retried without success. [reason] and [cause] are the
+     * failure of the last attempt.
+     */
+    class Exhausted(
+            val failure: Exception,
+            /** The number of attempts made. */
+            val attempts: Int,
+            /** The time spent on all the attempts, and the waits between them. */
+            val elapsed: Duration,
+            /** The budget of the policy, or `null` if it had none. */
+            val budget: Duration?) : Try.Signal(failure) {
+
+        override val cause: Throwable get() = failure
+
+        /**
+         * Returns the time left of the budget when the action was given up, or `null` if the
+         * policy had no budget.
+         */
+        fun remaining(): Duration? = budget?.minus(elapsed)
+    }
+
+    private abstract class Backoff {
+
+        // the wait in nanoseconds after attempt number `attempt` when the last wait was `previous`
+        abstract fun delay(attempt: Int, previous: Long): Long
+    }
+
+    private class Fixed(private val delay: Long) : Backoff() {
+
+        override fun delay(attempt: Int, previous: Long): Long = delay
+    }
+
+    private class Exponential(private val initial: Long, private val max: Long) : Backoff() {
+
+        override fun delay(attempt: Int, previous: Long): Long =
+                if (attempt > 62 || initial > max ushr (attempt - 1)) max else initial shl (attempt - 1)
+    }
+
+    private class DecorrelatedJitter(private val base: Long, private val cap: Long) : Backoff() {
+
+        override fun delay(attempt: Int, previous: Long): Long {
+            val upper = Math.min(cap, Math.max(base, previous) * 3)
+            return if (upper <= base) base else ThreadLocalRandom.current().nextLong(base, upper + 1)
+        }
+    }
+
+    companion object {
+
+        private const val defaultMaxAttempts = 3
+
+        private val everything = Predicate<Exception> { true }
+
+        /**
+         * Returns a policy which waits `delay` between attempts.
+         */
+        @JvmStatic
+        fun fixed(delay: Duration): RetryPolicy =
+                RetryPolicy(Fixed(delay.toNanos()), defaultMaxAttempts, null, everything)
+
+        /**
+         * Returns a policy which waits `initial` after the first attempt, and twice as long after
+         * each attempt following, up to `max`.
+         */
+        @JvmStatic
+        fun exponential(initial: Duration, max: Duration): RetryPolicy =
+                RetryPolicy(Exponential(initial.toNanos(), max.toNanos()), defaultMaxAttempts, null, everything)
+
+        /**
+         * Returns a policy which waits a random time between `base` and three times the last
+         * wait, but no more than `cap`, so that callers failing together don't retry together.
+         */
+        @JvmStatic
+        fun decorrelatedJitter(base: Duration, cap: Duration): RetryPolicy =
+                RetryPolicy(DecorrelatedJitter(base.toNanos(), cap.toNanos()), defaultMaxAttempts, null, everything)
+    }
+}
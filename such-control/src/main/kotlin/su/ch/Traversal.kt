@@ -0,0 +1,90 @@
+@file:Suppress("UNCHECKED_CAST")
+
+package su.ch
+
+import su.ch.framework.Monad
+import java.util.concurrent.ForkJoinPool
+import java.util.concurrent.RecursiveAction
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.function.Function
+import java.util.function.Predicate
+
+/**
+ * The traversals behind [Maybe.traverse] and [Either.traverse]. Each applies `mapper` to the
+ * items in turn, and returns either the list of the values of the results or, if any result is
+ * `failed`, the first such result in order.
+ */
+internal object Traversal {
+
+    /**
+     * Stops at the first failed result. The values are written into an array of the size of the
+     * input, which is returned as a list without copying.
+     */
+    fun <A> sequential(items: Collection<A>, mapper: Function<in A, out Monad<*, *>>, failed: Predicate<Monad<*, *>>): Any {
+        val values = arrayOfNulls<Any?>(items.size)
+        var i = 0
+        for (item in items) {
+            val result = mapper.apply(item)
+            if (failed.test(result)) return result
+            values[i++] = result.get()
+        }
+        return values.asList()
+    }
+
+    /**
+     * Splits the items into chunks which are run on `pool`. When a chunk finds a failed result,
+     * the chunks after it are abandoned, by those not yet started skipping their work and those
+     * running stopping at their next item. Chunks before it carry on, in case one of them holds
+     * an earlier failure, so the failure returned is the same as [sequential] would return.
+     */
+    fun <A> parallel(items: Collection<A>, mapper: Function<in A, out Monad<*, *>>, failed: Predicate<Monad<*, *>>, pool: ForkJoinPool): Any {
+        val inputs = items as? RandomAccess as? List<A> ?: ArrayList(items)
+        // holds the value of each result, or the result itself if it failed
+        val values = arrayOfNulls<Any?>(inputs.size)
+        val failedAt = AtomicInteger(Int.MAX_VALUE)
+        // several tasks per worker, so that idle workers have work to steal
+        val threshold = Math.max(1, inputs.size / (pool.parallelism * 8))
+        pool.invoke(Chunk(inputs, mapper, failed, values, failedAt, 0, inputs.size, threshold))
+
+        val first = failedAt.get()
+        return if (first == Int.MAX_VALUE) values.asList() else values[first] as Any
+    }
+
+    private class Chunk<A>(
+            private val items: List<A>,
+            private val mapper: Function<in A, out Monad<*, *>>,
+            private val failed: Predicate<Monad<*, *>>,
+            private val values: Array<Any?>,
+            private val failedAt: AtomicInteger,
+            private val from: Int,
+            private val to: Int,
+            private val threshold: Int) : RecursiveAction() {
+
+        override fun compute() {
+            if (from > failedAt.get()) return
+            if (to - from <= threshold) {
+                for (i in from until to) {
+                    if (i > failedAt.get()) return
+                    val result = mapper.apply(items[i])
+                    if (failed.test(result)) {
+                        values[i] = result
+                        fail(i)
+                        return
+                    }
+                    values[i] = result.get()
+                }
+            } else {
+                val middle = (from + to) ushr 1
+                invokeAll(Chunk(items, mapper, failed, values, failedAt, from, middle, threshold),
+                        Chunk(items, mapper, failed, values, failedAt, middle, to, threshold))
+            }
+        }
+
+        private fun fail(i: Int) {
+            while (true) {
+                val current = failedAt.get()
+                if (current <= i || failedAt.compareAndSet(current, i)) return
+            }
+        }
+    }
+}
@@ -2,36 +2,117 @@
 
 package su.ch
 
-import su.ch.Either.Companion.partitionLeft
 import su.ch.Either.Left
 import su.ch.Either.Right
-import su.ch.Maybe.Just
 import su.ch.Try.Success.Success0
 import su.ch.annotation.Experimental
 import su.ch.framework.Monad
+import su.ch.time.Stopwatch
+import su.ch.time.Stopwatch.RunningStopwatch
+import java.time.Duration
+import java.util.concurrent.Callable
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.Executor
+import java.util.concurrent.ForkJoinPool
+import java.util.concurrent.FutureTask
+import java.util.concurrent.RecursiveAction
+import java.util.concurrent.RejectedExecutionException
+import java.util.concurrent.SynchronousQueue
+import java.util.concurrent.ThreadFactory
+import java.util.concurrent.ThreadPoolExecutor
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.TimeoutException
+import java.util.concurrent.atomic.AtomicInteger
 import java.util.function.BiFunction
 import java.util.function.Consumer
 import java.util.function.Function
 
 @Experimental
-sealed class Try<A>(value: A, val functions: List<Either<BiFunction<Exception, A, *>, Function<A, *>>> = listOf()) : Monad<A, Try<A>>(value) {
+sealed class Try<A>(
+        value: A,
+        val functions: List<Either<BiFunction<Exception, A, *>, Function<A, *>>> = listOf(),
+        // observes this pipeline in place of the registered listener, if given
+        internal val listener: TryListener? = null,
+        // bounds the time taken by all the actions, if given
+        internal val deadline: Deadline? = null) : Monad<A, Try<A>>(value) {
 
     override fun <A> create(value: A): Success<A> = Success0(value)
 
     fun doAction(function: Function<A, *>): Success0<A> =
-            Success0(value, functions + listOf(Right<BiFunction<Exception, A, *>, Function<A, *>>(function)))
+            Success0(value, functions + listOf(Right<BiFunction<Exception, A, *>, Function<A, *>>(function)), listener, deadline)
 
-    open fun isSuccess(): Boolean = when {
-        functions.isEmpty() -> true
-        else -> {
-            val (failure, success) = partitionLeft(functions)
-            Do(value, failure, success).isSuccess()
-        }
-    }
+    /**
+     * Like [doAction], but `function` is run speculatively, as `hedge` describes.
+     */
+    fun doAction(function: Function<A, *>, hedge: Hedge): Success0<A> =
+            doAction(Function { a: A -> hedge.run(function, a) })
+
+    /**
+     * Like [doAction], but `function` is only run if `breaker` allows. If it doesn't, the stage
+     * fails with a [CircuitBreaker.Open].
+     */
+    fun doAction(function: Function<A, *>, breaker: CircuitBreaker): Success0<A> =
+            doAction(Function { a: A -> breaker.run(function, a) })
+
+    /**
+     * Like [doAction], but `function` is only run within the limit of `limiter`. If it isn't,
+     * the stage fails with a [ConcurrencyLimiter.Rejected].
+     */
+    fun doAction(function: Function<A, *>, limiter: ConcurrencyLimiter): Success0<A> =
+            doAction(Function { a: A -> limiter.run(function, a) })
+
+    /**
+     * Like [doAction], but if `function` runs for longer than `timeout` it is abandoned, and the
+     * stage fails with a [TimedOut]. A timed action runs on the executor given to [within], or
+     * on a shared pool of daemon threads, while the calling thread waits for it. An abandoned
+     * action is interrupted, but may carry on running if it doesn't respond to interruption, and
+     * keeps its thread while it does. The shared pool has at most [timeLimitedThreads] threads;
+     * when they are all busy, the stage fails at once with a [RejectedExecutionException].
+     */
+    fun doAction(function: Function<A, *>, timeout: Duration): Success0<A> = doAction(TimeLimited(function, timeout))
+
+    /**
+     * Returns a `Try` like this one, but whose actions must all have finished within `deadline`
+     * of the first one starting. The action running when the deadline passes is abandoned, as
+     * with [doAction], and the stage fails with a [TimedOut]. While the deadline hasn't passed,
+     * the actions run on `executor` while the calling thread waits for them.
+     */
+    fun within(deadline: Duration, executor: Executor): Success0<A> =
+            Success0(value, functions, listener, Deadline(deadline, executor))
+
+    /**
+     * Like [within], but the actions run on the bounded shared pool of daemon threads described
+     * in [doAction].
+     */
+    fun within(deadline: Duration): Success0<A> = within(deadline, timeLimitedExecutor)
+
+    /**
+     * Like [doAction], but `function` is retried as `policy` allows before the stage fails. If it
+     * is given up, the recoveries receive a [RetryPolicy.Exhausted].
+     */
+    fun doAction(function: Function<A, *>, policy: RetryPolicy): Success0<A> = doAction(Retried(function, policy))
+
+    /**
+     * Like [doAction], but `function` reports failure by returning a [Left] rather than by
+     * throwing. The stage fails with a [Signal] carrying the error of the `Left`.
+     */
+    fun doAttempt(function: Function<A, out Either<*, *>>): Success0<A> =
+            doAction(Function { a: A ->
+                val result = function.apply(a)
+                if (result is Left) Signal(result.error) else result
+            })
+
+    // the outcome of running `functions`, once it is known
+    @Volatile private var outcome: Try<A>? = null
+
+    // started with the first action, if there is a deadline
+    @Volatile private var clock: RunningStopwatch? = null
+
+    open fun isSuccess(): Boolean = outcome() !is Failure
 
     fun ifSuccessful(consumer: Consumer<A>): Boolean {
         if (isSuccess()) {
-            map(Function { it: A -> consumer.accept(it); it })
+            consumer.accept(value)
             return true
         }
         return false
@@ -39,61 +120,274 @@ sealed class Try<A>(value: A, val functions: List<Either<BiFunction<Exception, A
 
     fun ifFailed(consumer: Consumer<A>): Boolean {
         if (!isSuccess()) {
-            map(Function { it: A -> consumer.accept(it); it })
+            consumer.accept(value)
             return false
         }
         return true
     }
 
-    class Do<A>(value: A, val failure: List<Maybe<Left<*, *>>>, val success: List<Maybe<Right<*, *>>>)
-        : Try<A>(value) {
-
-        override fun isSuccess(): Boolean = when {
-            success.isEmpty() -> true
-            else -> {
-                try {
-                    success.first().get().apply(this)
-                    Do(value, failure, success.drop(1)).isSuccess()
-                } catch (e: Exception) {
-                    Failure(value, e, failure.drop(success.size - 1).reversed()).isSuccess()
+    /**
+     * Runs the actions at most once, however many times the outcome is asked for.
+     */
+    internal fun outcome(): Try<A> =
+            outcome ?: synchronized(this) {
+                outcome ?: execute().also { outcome = it }
+            }
+
+    /**
+     * Runs each action in turn until one throws.
+     */
+    private fun execute(): Try<A> {
+        var stage = 0
+        for (i in functions.indices) {
+            if (functions[i] is Right) attempt(i, stage++)?.let { return it }
+        }
+        return this
+    }
+
+    /**
+     * Runs the action at index `i` of [functions], which is the action of `stage`. If it throws,
+     * or returns a [Signal], the recovery following it, and then those following each earlier
+     * action, are run in reverse order and the [Failure] is returned.
+     */
+    internal fun attempt(i: Int, stage: Int): Failure<A>? {
+        val action = functions[i] as Right<BiFunction<Exception, A, *>, Function<A, *>>
+        val listener = listener ?: Try.listener
+        // nothing is timed unless someone is listening
+        val stopwatch = if (listener === TryListener.NONE) null else Stopwatch.runningStopwatch()
+        // a retried action reports its attempts to the listener, as those of this stage
+        val function = (action.get() as? Retried<A>)?.reportingTo(listener, stage) ?: action.get()
+        val failure = try {
+            run(function) as? Signal
+        } catch (e: Exception) {
+            e
+        }
+        stopwatch?.let { listener.onAction(stage, it.elapsed(), failure) }
+        return failure?.let { fail(i, stage, it, listener) }
+    }
+
+    /**
+     * Applies `function` to [value], abandoning it if it overruns its own timeout or the
+     * deadline.
+     */
+    private fun run(function: Function<A, *>): Any? {
+        val timeout = (function as? TimeLimited<A>)?.timeout
+        if (deadline == null && timeout == null) return function.apply(value)
+
+        var limit = timeout?.toNanos() ?: Long.MAX_VALUE
+        if (deadline != null) {
+            val clock = clock ?: Stopwatch.runningStopwatch().also { clock = it }
+            val remaining = deadline.limit.toNanos() - clock.elapsed().toNanos()
+            if (remaining <= 0) return TimedOut(deadline.limit)
+            limit = Math.min(limit, remaining)
+        }
+        val task = FutureTask(Callable { function.apply(value) })
+        (deadline?.executor ?: timeLimitedExecutor).execute(task)
+        return try {
+            task.get(limit, TimeUnit.NANOSECONDS)
+        } catch (e: TimeoutException) {
+            task.cancel(true)
+            TimedOut(if (timeout != null && timeout.toNanos() == limit) timeout else deadline!!.limit)
+        } catch (e: InterruptedException) {
+            task.cancel(true)
+            Thread.currentThread().interrupt()
+            throw e
+        } catch (e: ExecutionException) {
+            throw e.cause ?: e
+        }
+    }
+
+    private fun fail(i: Int, stage: Int, e: Exception, listener: TryListener): Failure<A> =
+            Failure(value, e, recover(e, if (i + 1 < functions.size && functions[i + 1] is Left) i + 1 else i, stage, listener))
+
+    /**
+     * Runs the recoveries from index `from` down. An exception thrown by a recovery doesn't stop
+     * the others; it is reported to `listener`, and the exceptions thrown are returned in order.
+     * They are not added to `e`, which may be an instance the caller shares between failures.
+     */
+    private fun recover(e: Exception, from: Int, stage: Int, listener: TryListener): List<Exception> {
+        var current = stage
+        var thrown: MutableList<Exception>? = null
+        for (i in from downTo 0) {
+            val function = functions[i]
+            if (function is Left) {
+                val stopwatch = if (listener === TryListener.NONE) null else Stopwatch.runningStopwatch()
+                val failure = try {
+                    function.error.apply(e, value)
+                    null
+                } catch (x: Exception) {
+                    (thrown ?: ArrayList<Exception>(1).also { thrown = it }).add(x)
+                    x
                 }
+                stopwatch?.let { listener.onRecovery(current, it.elapsed(), failure) }
+            } else {
+                current--
             }
         }
+        return thrown ?: emptyList()
     }
 
-    sealed class Success<A>(value: A, functions: List<Either<BiFunction<Exception, A, *>, Function<A, *>>> = listOf())
-        : Try<A>(value, functions) {
+    sealed class Success<A>(
+            value: A,
+            functions: List<Either<BiFunction<Exception, A, *>, Function<A, *>>> = listOf(),
+            listener: TryListener? = null,
+            deadline: Deadline? = null) : Try<A>(value, functions, listener, deadline) {
 
-        class Success0<A>(value: A, functions: List<Either<BiFunction<Exception, A, *>, Function<A, *>>> = listOf())
-            : Success<A>(value, functions) {
+        class Success0<A>(
+                value: A,
+                functions: List<Either<BiFunction<Exception, A, *>, Function<A, *>>> = listOf(),
+                listener: TryListener? = null,
+                deadline: Deadline? = null) : Success<A>(value, functions, listener, deadline) {
             fun orRecover(function: BiFunction<Exception, A, *>): Success1<A> =
-                    Success1(value, functions + Left(function))
+                    Success1(value, functions + Left(function), listener, deadline)
 
         }
 
-        class Success1<A>(value: A, functions: List<Either<BiFunction<Exception, A, *>, Function<A, *>>> = listOf())
-            : Success<A>(value, functions)
+        class Success1<A>(
+                value: A,
+                functions: List<Either<BiFunction<Exception, A, *>, Function<A, *>>> = listOf(),
+                listener: TryListener? = null,
+                deadline: Deadline? = null) : Success<A>(value, functions, listener, deadline)
 
     }
 
-    class Failure<A>(value: A, val e: Exception, val failure: List<Maybe<Left<*, *>>>)
-        : Try<A>(value) {
+    /**
+     * An exception which signals the failure of an action without the cost of capturing a stack
+     * trace. An action may throw a `Signal`, or simply return one, in which case nothing is
+     * thrown at all. A `Signal` is immutable, so one may be preallocated and used repeatedly.
+     */
+    open class Signal(val reason: Any?) : RuntimeException(null, null, false, false) {
+
+        override val message: String? get() = reason?.toString()
+    }
+
+    /**
+     * The failure of an action which overran `limit`, either its own timeout or the deadline of
+     * the [Try].
+     */
+    class TimedOut(val limit: Duration) : Signal(limit) {
+
+        override val message: String? get() = "timed out after $limit"
+    }
 
-        override fun isSuccess(): Boolean {
-            if (failure.isEmpty()) {
-                return false
+    /**
+     * The outcome of a [Try] in which an action threw, or returned, `e`, and the recoveries then
+     * threw `recoveryFailures`, in the order they ran.
+     */
+    class Failure<A>(value: A, val e: Exception, val recoveryFailures: List<Exception>) : Try<A>(value) {
+
+        constructor(value: A, e: Exception) : this(value, e, emptyList())
+
+
+        override fun isSuccess(): Boolean = false
+    }
+
+    /**
+     * The time within which every action of a [Try] must have finished, and the executor on
+     * which they run.
+     */
+    class Deadline internal constructor(val limit: Duration, internal val executor: Executor)
+
+    // an action which is abandoned if it runs for longer than `timeout`
+    private class TimeLimited<A>(private val function: Function<A, *>, val timeout: Duration) : Function<A, Any?> {
+
+        override fun apply(a: A): Any? = function.apply(a)
+    }
+
+    // an action which is retried under `policy`
+    private class Retried<A>(private val function: Function<A, *>, private val policy: RetryPolicy) : Function<A, Any?> {
+
+        override fun apply(a: A): Any? = policy.run(function, a, TryListener.NONE, -1)
+
+        fun reportingTo(listener: TryListener, stage: Int): Function<A, Any?> =
+                Function { a: A -> policy.run(function, a, listener, stage) }
+    }
+
+    companion object {
+
+        /**
+         * The largest number of threads in the shared pool which runs timed actions.
+         */
+        @JvmField val timeLimitedThreads = Math.max(64, 4 * Runtime.getRuntime().availableProcessors())
+
+        // bounded, so that abandoned actions which ignore interruption can't take every thread
+        private val timeLimitedExecutor: Executor by lazy {
+            val threads = AtomicInteger()
+            ThreadPoolExecutor(0, timeLimitedThreads, 60, TimeUnit.SECONDS, SynchronousQueue<Runnable>(), ThreadFactory { runnable ->
+                Thread(runnable, "such-try-${threads.incrementAndGet()}").apply { isDaemon = true }
+            }, ThreadPoolExecutor.AbortPolicy())
+        }
+
+        /**
+         * The listener which observes every [Try] not given one of its own. By default, this is
+         * [TryListener.NONE], so stages are not timed at all and nothing is recorded. The failures
+         * of recoveries are still kept on each [Failure].
+         */
+        @Volatile @JvmStatic var listener: TryListener = TryListener.NONE
+
+        @JvmStatic fun <A> with(value: A): Success<A> = Success0(value)
+
+        /**
+         * Returns a new [Try] which is observed by `listener` instead of the registered one. This
+         * is the way to keep metrics for one pipeline: give each pipeline its own [TryMetrics],
+         * shared by every run of it, so that its stages aren't counted with those of others.
+         */
+        @JvmStatic fun <A> with(value: A, listener: TryListener): Success<A> = Success0(value, listener = listener)
+
+        /**
+         * Runs every one of `tries` on a new [ForkJoinPool] of the given `parallelism`, then
+         * partitions the outcomes into two lists, in order. Like [Either.partition], the failures
+         * are in the left branch of the output [Pair] and the successes in the right branch.
+         */
+        @JvmStatic
+        fun <A> runAll(tries: Collection<Try<A>>, parallelism: Int): Pair<List<Failure<A>>, List<Try<A>>> {
+            val pool = ForkJoinPool(parallelism)
+            try {
+                return runAll(tries, pool)
+            } finally {
+                pool.shutdown()
             }
-            if (failure.first() is Just) try {
-                (failure.first().get().error as BiFunction<Exception, A, *>).apply(e, value)
-            } catch (e: Exception) {
-                println("ohnoes $e")
+        }
+
+        /**
+         * Runs every one of `tries` on `pool`, then partitions the outcomes into two lists, in
+         * order. Like [Either.partition], the failures are in the left branch of the output
+         * [Pair] and the successes in the right branch.
+         */
+        @JvmStatic
+        fun <A> runAll(tries: Collection<Try<A>>, pool: ForkJoinPool): Pair<List<Failure<A>>, List<Try<A>>> {
+            val pipelines = tries as? RandomAccess as? List<Try<A>> ?: ArrayList(tries)
+            val outcomes = arrayOfNulls<Try<A>>(pipelines.size)
+            // several tasks per worker, so that idle workers have work to steal
+            val threshold = Math.max(1, pipelines.size / (pool.parallelism * 8))
+            pool.invoke(RunAll(pipelines, outcomes, 0, pipelines.size, threshold))
+
+            val failures = ArrayList<Failure<A>>()
+            val successes = ArrayList<Try<A>>(pipelines.size)
+            for (i in pipelines.indices) {
+                when (val outcome = outcomes[i]) {
+                    is Failure -> failures.add(outcome)
+                    else -> successes.add(pipelines[i])
+                }
             }
-            return Failure(value, e, failure.drop(1)).isSuccess()
+            return Pair(failures, successes)
         }
     }
 
-    companion object {
+    private class RunAll<A>(
+            private val tries: List<Try<A>>,
+            private val outcomes: Array<Try<A>?>,
+            private val from: Int,
+            private val to: Int,
+            private val threshold: Int) : RecursiveAction() {
 
-        @JvmStatic fun <A> with(value: A): Success<A> = Success0(value)
+        override fun compute() {
+            if (to - from <= threshold) {
+                for (i in from until to) outcomes[i] = tries[i].outcome()
+            } else {
+                val middle = (from + to) ushr 1
+                invokeAll(RunAll(tries, outcomes, from, middle, threshold), RunAll(tries, outcomes, middle, to, threshold))
+            }
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,50 @@
+package su.ch
+
+import su.ch.annotation.Experimental
+import java.time.Duration
+
+/**
+ * Observes the stages of a [Try] as they run. A listener may be registered for every `Try` with
+ * [Try.setListener], or for a single pipeline with [Try.with]. Stages are numbered from zero in
+ * the order of the actions that make up the pipeline, and each recovery is reported against the
+ * stage of the action it follows.
+ *
+ * A listener is called on whichever thread runs the stage, so must be thread-safe. [TryMetrics]
+ * is a lock-free implementation which keeps counts and timings for each stage. None is registered
+ * by default, and as stages are numbered within their own pipeline, metrics are best kept per
+ * pipeline, by passing the same listener to [Try.with] for every run of it.
+ */
+@Experimental
+interface TryListener {
+
+    /**
+     * Called when the action of `stage` has run for `elapsed`, with the exception it threw or
+     * returned as `failure`, or `null` if it succeeded.
+     */
+    fun onAction(stage: Int, elapsed: Duration, failure: Exception?)
+
+    /**
+     * Called when a recovery following the action of `stage` has run for `elapsed`, with the
+     * exception it threw as `failure`, or `null` if it succeeded.
+     */
+    fun onRecovery(stage: Int, elapsed: Duration, failure: Exception?)
+
+    /**
+     * Called when the action of `stage`, run under a [RetryPolicy], has finished after `attempts`
+     * attempts, including the first, which with the waits between them took `elapsed`. It is
+     * called whether the action succeeded or not, before [onAction].
+     */
+    fun onRetry(stage: Int, attempts: Int, elapsed: Duration)
+
+    companion object {
+
+        /**
+         * A listener which ignores everything. Stages are not timed at all while it is registered.
+         */
+        @JvmField val NONE: TryListener = object : TryListener {
+            override fun onAction(stage: Int, elapsed: Duration, failure: Exception?) {}
+            override fun onRecovery(stage: Int, elapsed: Duration, failure: Exception?) {}
+            override fun onRetry(stage: Int, attempts: Int, elapsed: Duration) {}
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package su.ch
+
+import su.ch.annotation.Experimental
+import java.time.Duration
+import java.util.Collections
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.LongAdder
+import javax.annotation.concurrent.ThreadSafe
+
+/**
+ * A [TryListener] which counts the runs, failures and elapsed time of each stage, and the types
+ * of exception each stage fails with. Recording takes no locks, and allocates nothing once a
+ * stage and exception type have been seen, so one instance may be shared by many pipelines
+ * running concurrently. The figures may be read at any time, for instance by a metrics reporter
+ * sampling them periodically; each is up to date but they are not read atomically together.
+ *
+ * # Example Usage
+ *
+ * ```
+ * val metrics = TryMetrics()
+ * ...
+ * Try.with(order, metrics)
+ *         .doAction(Function { validate(it) })
+ *         .doAction(Function { charge(it) })
+ * ...
+ * report(metrics.stage(1).failureRate())
+ * ```
+ */
+@ThreadSafe @Experimental
+class TryMetrics : TryListener {
+
+    private val stages = ConcurrentHashMap<Int, Stage>()
+
+    override fun onAction(stage: Int, elapsed: Duration, failure: Exception?) =
+            stage(stage).recordAction(elapsed, failure)
+
+    override fun onRecovery(stage: Int, elapsed: Duration, failure: Exception?) =
+            stage(stage).recordRecovery(elapsed, failure)
+
+    override fun onRetry(stage: Int, attempts: Int, elapsed: Duration) =
+            stage(stage).recordRetry(attempts, elapsed)
+
+    /**
+     * Returns the figures for `stage`, which are all zero until it has run.
+     */
+    fun stage(stage: Int): Stage = stages[stage] ?: stages.computeIfAbsent(stage) { Stage() }
+
+    /**
+     * Returns a live view of the figures for every stage which has run, by stage.
+     */
+    fun stages(): Map<Int, Stage> = Collections.unmodifiableMap(stages)
+
+    override fun toString(): String = ToString(this).addValue(stages).toString()
+
+    /**
+     * The figures for a single stage of a pipeline.
+     */
+    @ThreadSafe
+    class Stage internal constructor() {
+
+        private val runs = LongAdder()
+        private val failures = LongAdder()
+        private val nanos = LongAdder()
+        private val recoveries = LongAdder()
+        private val recoveryFailures = LongAdder()
+        private val recoveryNanos = LongAdder()
+        private val retries = LongAdder()
+        private val retryNanos = LongAdder()
+        private val failureTypes = ConcurrentHashMap<Class<out Exception>, LongAdder>()
+
+        internal fun recordAction(elapsed: Duration, failure: Exception?) {
+            runs.increment()
+            nanos.add(elapsed.toNanos())
+            if (failure != null) {
+                failures.increment()
+                count(failure)
+            }
+        }
+
+        internal fun recordRecovery(elapsed: Duration, failure: Exception?) {
+            recoveries.increment()
+            recoveryNanos.add(elapsed.toNanos())
+            if (failure != null) {
+                recoveryFailures.increment()
+                count(failure)
+            }
+        }
+
+        internal fun recordRetry(attempts: Int, elapsed: Duration) {
+            retries.add(attempts - 1L)
+            retryNanos.add(elapsed.toNanos())
+        }
+
+        private fun count(failure: Exception) {
+            val type = failure.javaClass
+            (failureTypes[type] ?: failureTypes.computeIfAbsent(type) { LongAdder() }).increment()
+        }
+
+        /**
+         * Returns the number of times the action has run.
+         */
+        fun runs(): Long = runs.sum()
+
+        /**
+         * Returns the number of times the action has failed.
+         */
+        fun failures(): Long = failures.sum()
+
+        /**
+         * Returns the proportion of runs of the action which failed, or zero if it hasn't run.
+         */
+        fun failureRate(): Double = runs().let { if (it == 0L) 0.0 else failures().toDouble() / it }
+
+        /**
+         * Returns the total time spent running the action.
+         */
+        fun elapsed(): Duration = Duration.ofNanos(nanos.sum())
+
+        /**
+         * Returns the number of times a recovery following the action has run.
+         */
+        fun recoveries(): Long = recoveries.sum()
+
+        /**
+         * Returns the number of times a recovery following the action has thrown.
+         */
+        fun recoveryFailures(): Long = recoveryFailures.sum()
+
+        /**
+         * Returns the total time spent running recoveries following the action.
+         */
+        fun recoveryElapsed(): Duration = Duration.ofNanos(recoveryNanos.sum())
+
+        /**
+         * Returns the number of times the action has been retried under a [RetryPolicy], not
+         * counting the first attempt of each run.
+         */
+        fun retries(): Long = retries.sum()
+
+        /**
+         * Returns the total time spent on the action under a [RetryPolicy], including the waits
+         * between attempts; the part of its budget which has been used.
+         */
+        fun retryElapsed(): Duration = Duration.ofNanos(retryNanos.sum())
+
+        /**
+         * Returns the number of failures of the action, and of its recoveries, by type of exception.
+         */
+        fun failureTypes(): Map<Class<out Exception>, Long> = failureTypes.mapValues { it.value.sum() }
+
+        override fun toString(): String = ToString(this)
+                .add("runs", runs())
+                .add("failures", failures())
+                .add("elapsed", elapsed())
+                .toString()
+    }
+}
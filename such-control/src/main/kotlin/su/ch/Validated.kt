@@ -0,0 +1,236 @@
+@file:Suppress("UNCHECKED_CAST")
+
+package su.ch
+
+import su.ch.annotation.Experimental
+import su.ch.annotation.Pure
+import su.ch.framework.Applicative
+import su.ch.framework.Semigroup
+import java.util.ArrayDeque
+import java.util.function.BiConsumer
+import java.util.function.BiFunction
+import java.util.function.BinaryOperator
+import java.util.function.Function
+import java.util.function.Supplier
+import java.util.stream.Collector
+
+/**
+ * The [Validated] type represents the outcome of a validation: a value of type `Validated` is
+ * either [Valid] or [Invalid].
+ *
+ * Unlike [Either], which stops at the first [Either.Left], combining two `Invalid` values with
+ * [apply] or [combine] appends their errors, which form a [Semigroup]. Because appending is
+ * associative, a batch may be validated in chunks, grouped in any way, and the results combined
+ * to the same outcome; see [toValidated].
+ *
+ * # Example Usage
+ *
+ * ```
+ * val name = Invalid<Errors<String>, String>(Errors.of("name is empty"))
+ * val age = Invalid<Errors<String>, Int>(Errors.of("age is negative"))
+ * assert(name.combine(age, BiFunction(::Person)) == Invalid(Errors(listOf("name is empty", "age is negative"))))
+ * ```
+ */
+@Experimental
+sealed class Validated<E : Semigroup<E, E>, A> constructor(value: Any?) : Applicative<A, Validated<E, *>>(value as A) {
+
+    override fun <A> create(value: A): Validated<E, *> = Valid<E, A>(value)
+
+    override fun <B> apply(functor: Applicative<B, Validated<E, *>>): Validated<E, *> {
+        val other = functor as Validated<E, B>
+        return when (this) {
+            is Valid -> when (other) {
+                is Valid -> Valid<E, Any?>((value as Function<B, *>).apply(other.value))
+                is Invalid -> other
+            }
+            is Invalid -> when (other) {
+                is Valid -> this
+                is Invalid -> Invalid<E, Any?>(errors.append(other.errors))
+            }
+        }
+    }
+
+    /**
+     * Combines this [Validated] with `other`. If both are [Valid] the result is `Valid`,
+     * containing the result of `combiner`. Otherwise, the result is [Invalid], containing the
+     * errors of both, in order.
+     */
+    @Pure
+    fun <B, C> combine(other: Validated<E, B>, combiner: BiFunction<A, B, C>): Validated<E, C> =
+            when (this) {
+                is Valid -> when (other) {
+                    is Valid -> Valid(combiner.apply(value, other.value))
+                    is Invalid -> other as Validated<E, C>
+                }
+                is Invalid -> when (other) {
+                    is Valid -> this as Validated<E, C>
+                    is Invalid -> Invalid(errors.append(other.errors))
+                }
+            }
+
+    /**
+     * Applies `invalid` to the errors of an [Invalid], or `valid` to the value of a [Valid].
+     */
+    @Pure
+    fun <B> fold(invalid: Function<E, B>, valid: Function<A, B>): B =
+            when (this) {
+                is Valid -> valid.apply(value)
+                is Invalid -> invalid.apply(errors)
+            }
+
+    /**
+     * Returns `true` if this is a [Valid] value.
+     */
+    @Pure fun isValid(): Boolean = this is Valid
+
+    /**
+     * Returns the equivalent [Either], with the errors of an [Invalid] on the left.
+     */
+    @Pure
+    fun toEither(): Either<E, A> =
+            when (this) {
+                is Valid -> Either.Right(value)
+                is Invalid -> Either.Left(errors)
+            }
+
+    /**
+     * Instance of [Validated] which represents success.
+     */
+    class Valid<E : Semigroup<E, E>, A>(value: A) : Validated<E, A>(value) {
+
+        @Pure fun get(): A = value
+    }
+
+    /**
+     * Instance of [Validated] which represents failure. An `Invalid` holds at least one error.
+     */
+    class Invalid<E : Semigroup<E, E>, A>(errors: E) : Validated<E, A>(errors) {
+
+        val errors: E get() = value as E
+    }
+
+    /**
+     * A [Semigroup] of errors which appends by concatenation, for use as the error type of
+     * [Validated]. Appending does not copy either operand, so accumulating many errors one at a
+     * time is linear rather than quadratic; the errors are gathered into a list by [toList].
+     */
+    class Errors<T> private constructor(
+            private val leaf: List<T>,
+            private val front: Errors<T>?,
+            private val back: Errors<T>?) : Semigroup<Errors<T>, Errors<T>> {
+
+        constructor(errors: List<T>) : this(errors, null, null)
+
+        val size: Int = leaf.size + (front?.size ?: 0) + (back?.size ?: 0)
+
+        @Pure override fun append(value: Errors<T>): Errors<T> = Errors(listOf(), this, value)
+
+        /**
+         * Returns the errors, in the order they were appended.
+         */
+        @Pure
+        fun toList(): List<T> {
+            val errors = ArrayList<T>(size)
+            // iterative so that a long chain of appends can't overflow the stack
+            val pending = ArrayDeque<Errors<T>>()
+            pending.push(this)
+            while (!pending.isEmpty()) {
+                val next = pending.pop()
+                errors.addAll(next.leaf)
+                next.back?.let { pending.push(it) }
+                next.front?.let { pending.push(it) }
+            }
+            return errors
+        }
+
+        @Pure override fun equals(other: Any?): Boolean = other is Errors<*> && toList() == other.toList()
+
+        @Pure override fun hashCode(): Int = toList().hashCode()
+
+        @Pure override fun toString(): String =
+                ToString(this)
+                        .addValue(toList())
+                        .toString()
+
+        companion object {
+
+            /**
+             * Returns new [Errors] containing a single error.
+             */
+            @JvmStatic fun <T> of(error: T): Errors<T> = Errors(listOf(error))
+        }
+    }
+
+    companion object {
+
+        /**
+         * Returns a new [Valid] value which represents success.
+         */
+        @JvmStatic fun <E : Semigroup<E, E>, A> Valid(value: A): Validated<E, A> = Validated.Valid(value)
+
+        /**
+         * Returns a new [Invalid] value which represents failure.
+         */
+        @JvmStatic fun <E : Semigroup<E, E>, A> Invalid(errors: E): Validated<E, A> = Validated.Invalid(errors)
+
+        /**
+         * Returns a [Valid] list of all the values of `validateds`, in order, if every element is
+         * `Valid`. Otherwise, returns an [Invalid] containing the errors of every `Invalid`
+         * element, in order.
+         */
+        @JvmStatic @Pure
+        fun <E : Semigroup<E, E>, A> sequence(validateds: Collection<Validated<E, A>>): Validated<E, List<A>> {
+            val accumulator = ValidatedAccumulator<E, A>(validateds.size)
+            for (v in validateds) accumulator.accept(v)
+            return accumulator.finish()
+        }
+
+        /**
+         * Returns a [Collector] which combines a stream of [Validated] like [sequence]. The
+         * collector may be used with a parallel stream; since appending errors is associative,
+         * the result is the same as for a sequential stream.
+         */
+        @JvmStatic @Pure
+        fun <E : Semigroup<E, E>, A> toValidated(): Collector<Validated<E, A>, *, Validated<E, List<A>>> =
+                Collector.of(
+                        Supplier { ValidatedAccumulator<E, A>() },
+                        BiConsumer { accumulator, v -> accumulator.accept(v) },
+                        BinaryOperator { accumulator, other -> accumulator.combine(other) },
+                        Function { accumulator -> accumulator.finish() })
+    }
+}
+
+/**
+ * Accumulates the values of [Validated.Valid] elements until the first [Validated.Invalid],
+ * and the errors of `Invalid` elements after it.
+ */
+private class ValidatedAccumulator<E : Semigroup<E, E>, A>(capacity: Int = 10) {
+
+    private var values: ArrayList<A>? = ArrayList(capacity)
+    private var errors: E? = null
+
+    fun accept(v: Validated<E, A>) {
+        when (v) {
+            is Validated.Valid -> values?.add(v.get())
+            is Validated.Invalid -> append(v.errors)
+        }
+    }
+
+    private fun append(other: E) {
+        errors = errors?.append(other) ?: other
+        // values are of no further use once there are errors
+        values = null
+    }
+
+    fun combine(other: ValidatedAccumulator<E, A>): ValidatedAccumulator<E, A> {
+        val otherErrors = other.errors
+        when {
+            otherErrors != null -> append(otherErrors)
+            else -> values?.addAll(other.values!!)
+        }
+        return this
+    }
+
+    fun finish(): Validated<E, List<A>> =
+            errors?.let { Validated.Invalid<E, List<A>>(it) } ?: Validated.Valid(values as List<A>)
+}
@@ -0,0 +1,48 @@
+package su.ch
+
+import su.ch.framework.Monad
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.Executor
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.function.Predicate
+import java.util.function.Supplier
+
+/**
+ * The parallel zip behind [Maybe.mapN] and [Either.mapN]. Each of `suppliers` is run as a
+ * separate task on `executor`, and the result is completed with either the list of the values
+ * of their results, in order, or the first result to arrive which is `failed`. As soon as it is
+ * completed, the tasks still waiting to run are cancelled, and those running on other threads
+ * are interrupted. The task which completed it is not interrupted, so its thread doesn't carry
+ * the interrupt into the next task run by the executor.
+ */
+internal object Zip {
+
+    fun zip(suppliers: List<Supplier<out Monad<*, *>>>, failed: Predicate<Monad<*, *>>, executor: Executor): CompletableFuture<Any> {
+        val result = CompletableFuture<Any>()
+        if (suppliers.isEmpty()) return result.also { it.complete(emptyList<Any?>()) }
+
+        val values = arrayOfNulls<Any?>(suppliers.size)
+        val remaining = AtomicInteger(suppliers.size)
+        val tasks = suppliers.mapIndexed { i, supplier ->
+            CancellableTask(Runnable {
+                if (result.isDone) return@Runnable
+                try {
+                    val monad = supplier.get()
+                    if (failed.test(monad)) {
+                        result.complete(monad)
+                    } else {
+                        values[i] = monad.get()
+                        // the last to finish sees the values written by the others
+                        if (remaining.decrementAndGet() == 0) result.complete(values.asList())
+                    }
+                } catch (e: Throwable) {
+                    // the executor may swallow it, leaving the result incomplete
+                    result.completeExceptionally(e)
+                }
+            })
+        }
+        result.whenComplete { _, _ -> tasks.forEach { it.cancel() } }
+        tasks.forEach { executor.execute(it) }
+        return result
+    }
+}
@@ -71,4 +71,11 @@ abstract class Functor<out A, R : Functor<*, R>> protected constructor(value: A)
     @Pure
     abstract fun <B> map(mapper: Function<B, *>): R
 
+    /**
+     * Returns a [Fused] chain over this [Functor], which composes the mappers given to it and
+     * maps this `Functor` only once, when its result is needed.
+     */
+    @Pure
+    fun fused(): Fused<@UnsafeVariance A, R> = Fused.of(this)
+
 }
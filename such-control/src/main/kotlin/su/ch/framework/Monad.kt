@@ -12,4 +12,12 @@ abstract class Monad<A, M : Monad<A, M>> protected constructor(value: A) : Appli
 
     @Pure open fun get(): A = value
 
+    /**
+     * A stack-safe [flatMap]. Rather than applying `mapper` at once, returns a [Trampoline] which
+     * applies it when [Trampoline.run], so that recursive chains of `flatMapLater` are evaluated
+     * in constant stack space.
+     */
+    @Pure open fun <V> flatMapLater(mapper: Function<A, out Trampoline<Monad<V, *>>>): Trampoline<M> =
+            Trampoline.call(mapper as Function<A, Trampoline<M>>, value)
+
 }
@@ -0,0 +1,124 @@
+@file:Suppress("UNCHECKED_CAST")
+
+package su.ch.framework
+
+import su.ch.annotation.Experimental
+import su.ch.annotation.Pure
+import java.util.ArrayDeque
+import java.util.function.Function
+import java.util.function.Supplier
+
+/**
+ * A computation which is evaluated in constant stack space by [run].
+ *
+ * A recursive `flatMap` grows the stack by a frame for every step, so a long enough chain of
+ * steps will overflow it. A `Trampoline` instead returns each step to [run], which evaluates it
+ * in a loop. Typically a `Trampoline` is built by [Monad.flatMapLater] and evaluates to an
+ * ordinary [Monad].
+ *
+ * # Example Usage
+ *
+ * ```
+ * fun countdown(n: Int): Trampoline<Maybe<Int>> =
+ *         if (n == 0) Trampoline.done(Just(0))
+ *         else Just(n - 1).flatMapLater(Function { countdown(it) })
+ *
+ * assert(countdown(1_000_000).run() == Just(0))
+ * ```
+ *
+ * @param <A> The result type.
+ */
+@Experimental
+sealed class Trampoline<out A> {
+
+    /**
+     * Returns a new `Trampoline` which applies `mapper` to the result of this one.
+     */
+    @Pure
+    fun <B> flatMap(mapper: Function<in A, out Trampoline<B>>): Trampoline<B> = Bind(this, mapper)
+
+    /**
+     * Returns a new `Trampoline` which applies `mapper` to the result of this one.
+     */
+    @Pure
+    fun <B> map(mapper: Function<in A, out B>): Trampoline<B> = Map(this, mapper)
+
+    /**
+     * Evaluates this computation, without growing the stack, and returns its result.
+     */
+    fun run(): A {
+        var current: Trampoline<Any?> = this
+        // the binds and maps enclosing `current`, innermost first, which are themselves the
+        // continuations, so that none is allocated while running
+        val continuations = ArrayDeque<Trampoline<Any?>>()
+        loop@ while (true) {
+            var result: Any? = when (current) {
+                is Done -> current.result
+                is Suspend -> {
+                    current = current.next.get()
+                    continue@loop
+                }
+                is Call<*, *> -> {
+                    current = (current as Call<Any?, Any?>).call()
+                    continue@loop
+                }
+                is Bind<*, *>, is Map<*, *> -> {
+                    continuations.push(current)
+                    current = (current as Continuation<Any?>).source
+                    continue@loop
+                }
+            }
+            // maps are applied here, without wrapping each result in a `Done`
+            while (true) {
+                val continuation = continuations.poll() ?: return result as A
+                when (continuation) {
+                    is Map<*, *> -> result = (continuation as Map<Any?, Any?>).mapper.apply(result)
+                    else -> {
+                        current = (continuation as Bind<Any?, Any?>).mapper.apply(result)
+                        continue@loop
+                    }
+                }
+            }
+        }
+    }
+
+    private interface Continuation<A> {
+        val source: Trampoline<A>
+    }
+
+    private class Done<A>(val result: A) : Trampoline<A>()
+
+    private class Suspend<A>(val next: Supplier<out Trampoline<A>>) : Trampoline<A>()
+
+    // `function` applied to `argument`: a suspension which needs no Supplier
+    private class Call<A, B>(val function: Function<A, out Trampoline<B>>, val argument: A) : Trampoline<B>() {
+
+        fun call(): Trampoline<B> = function.apply(argument)
+    }
+
+    private class Bind<A, B>(override val source: Trampoline<A>, val mapper: Function<in A, out Trampoline<B>>) :
+            Trampoline<B>(), Continuation<A>
+
+    private class Map<A, B>(override val source: Trampoline<A>, val mapper: Function<in A, out B>) :
+            Trampoline<B>(), Continuation<A>
+
+    companion object {
+
+        /**
+         * Returns a `Trampoline` which has already been evaluated to `result`.
+         */
+        @JvmStatic fun <A> done(result: A): Trampoline<A> = Done(result)
+
+        /**
+         * Returns a `Trampoline` which evaluates to the result of the `Trampoline` returned by
+         * `next`. `next` is not called until the `Trampoline` is [run].
+         */
+        @JvmStatic fun <A> suspend(next: Supplier<out Trampoline<A>>): Trampoline<A> = Suspend(next)
+
+        /**
+         * Returns a `Trampoline` which evaluates to the result of the `Trampoline` returned by
+         * `function` applied to `argument`, like [suspend] but without a [Supplier] to allocate.
+         */
+        internal fun <A, B> call(function: Function<A, out Trampoline<B>>, argument: A): Trampoline<B> = Call(function, argument)
+    }
+}
@@ -0,0 +1,79 @@
+package su.ch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+
+class AsyncTryTest {
+
+    @Test void actionsShouldRunOnTheExecutor() throws ExecutionException, InterruptedException {
+
+        AtomicInteger tasks = new AtomicInteger();
+        Executor executor = task -> { tasks.incrementAndGet(); new Thread(task).start(); };
+        List<String> calls = new CopyOnWriteArrayList<>();
+
+        Try<String> outcome = AsyncTry.with("I", executor)
+                .doAction(calls::add)
+                .doAction(v -> calls.add(v + "I"))
+                .toCompletionStage()
+                .toCompletableFuture()
+                .get();
+
+        assertThat(outcome.isSuccess(), is(true));
+        assertThat(outcome.get(), is(equalTo("I")));
+        assertThat(calls, contains("I", "II"));
+        assertThat(tasks.get(), is(equalTo(2)));
+    }
+
+    @Test void failureShouldRunRecoveriesAndSkipLaterActions() throws ExecutionException, InterruptedException {
+
+        List<String> calls = new CopyOnWriteArrayList<>();
+
+        Try<String> outcome = AsyncTry.with("I")
+                .doAction(calls::add)
+                .orRecover((e, v) -> calls.add("recover " + v))
+                .doAction(v -> { throw new IllegalStateException(v); })
+                .doAction(calls::add)
+                .toCompletionStage()
+                .toCompletableFuture()
+                .get();
+
+        assertThat(outcome, is(instanceOf(Try.Failure.class)));
+        assertThat(((Try.Failure<String>) outcome).getE(), is(instanceOf(IllegalStateException.class)));
+        assertThat(calls, contains("I", "recover I"));
+    }
+
+    @Test void actionsShouldNotRunUntilRequested() {
+
+        AtomicInteger tasks = new AtomicInteger();
+        Executor executor = task -> { tasks.incrementAndGet(); task.run(); };
+
+        AsyncTry<String> attempt = AsyncTry.with("I", executor).doAction(String::length);
+
+        assertThat(tasks.get(), is(equalTo(0)));
+
+        attempt.toCompletionStage();
+        attempt.toCompletionStage();
+
+        assertThat(tasks.get(), is(equalTo(1)));
+    }
+
+    @Test void completingTheStageShouldNotChangeTheOutcome() throws ExecutionException, InterruptedException {
+
+        AsyncTry<String> attempt = AsyncTry.with("I", Runnable::run).doAction(String::length);
+
+        attempt.toCompletionStage().toCompletableFuture().obtrudeValue(Try.with("II"));
+
+        assertThat(attempt.toCompletionStage().toCompletableFuture().get().get(), is(equalTo("I")));
+    }
+}
@@ -0,0 +1,164 @@
+package su.ch;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CircuitBreakerTest {
+
+    private static final class ManualClock extends Clock {
+
+        private Instant now = Instant.EPOCH;
+
+        void advance(Duration duration) {
+
+            now = now.plus(duration);
+        }
+
+        @Override public Instant instant() {
+
+            return now;
+        }
+
+        @Override public ZoneId getZone() {
+
+            return ZoneOffset.UTC;
+        }
+
+        @Override public Clock withZone(ZoneId zone) {
+
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static boolean call(CircuitBreaker breaker, boolean fail) {
+
+        return Try.with(3)
+                .doAction(v -> { if (fail) throw new IllegalStateException(); return v; }, breaker)
+                .isSuccess();
+    }
+
+    @Test void breakerShouldOpenWhenTooManyCallsFail() {
+
+        CircuitBreaker breaker = CircuitBreaker.of(0.5, Duration.ofMinutes(1), Duration.ofMinutes(1)).withMinimumCalls(4);
+
+        call(breaker, false);
+        call(breaker, true);
+        call(breaker, false);
+        assertThat(breaker.state(), is(CircuitBreaker.State.CLOSED));
+
+        call(breaker, true);
+        assertThat(breaker.state(), is(CircuitBreaker.State.OPEN));
+    }
+
+    @Test void openBreakerShouldShortCircuitToRecovery() {
+
+        CircuitBreaker breaker = CircuitBreaker.of(0.5, Duration.ofMinutes(1), Duration.ofMinutes(1)).withMinimumCalls(1);
+        AtomicInteger calls = new AtomicInteger();
+        AtomicReference<Exception> recovered = new AtomicReference<>();
+        call(breaker, true);
+
+        boolean success = Try.with(3)
+                .doAction(v -> calls.incrementAndGet(), breaker)
+                .orRecover((e, v) -> { recovered.set(e); return v; })
+                .isSuccess();
+
+        assertThat(success, is(false));
+        assertThat(calls.get(), is(equalTo(0)));
+        assertThat(recovered.get(), is(instanceOf(CircuitBreaker.Open.class)));
+        assertThat(breaker.rejected(), is(equalTo(1L)));
+    }
+
+    @Test void halfOpenBreakerShouldCloseAfterSuccessfulTrials() {
+
+        ManualClock clock = new ManualClock();
+        CircuitBreaker breaker = CircuitBreaker.of(0.5, Duration.ofMinutes(1), Duration.ofSeconds(20))
+                .withMinimumCalls(1)
+                .withHalfOpenCalls(2)
+                .withClock(clock);
+        call(breaker, true);
+        clock.advance(Duration.ofSeconds(19));
+        assertThat(call(breaker, false), is(false));
+        clock.advance(Duration.ofSeconds(1));
+
+        assertThat(call(breaker, false), is(true));
+        assertThat(breaker.state(), is(CircuitBreaker.State.HALF_OPEN));
+        assertThat(call(breaker, false), is(true));
+        assertThat(breaker.state(), is(CircuitBreaker.State.CLOSED));
+        assertThat(breaker.failureRate(), is(equalTo(0.0)));
+    }
+
+    @Test void halfOpenBreakerShouldReopenOnFailure() {
+
+        ManualClock clock = new ManualClock();
+        CircuitBreaker breaker = CircuitBreaker.of(0.5, Duration.ofMinutes(1), Duration.ofSeconds(20))
+                .withMinimumCalls(1)
+                .withClock(clock);
+        call(breaker, true);
+        clock.advance(Duration.ofSeconds(20));
+
+        call(breaker, true);
+
+        assertThat(breaker.state(), is(CircuitBreaker.State.OPEN));
+    }
+
+    @Test void halfOpenBreakerShouldReopenWhenATrialThrowsAnError() {
+
+        ManualClock clock = new ManualClock();
+        CircuitBreaker breaker = CircuitBreaker.of(0.5, Duration.ofMinutes(1), Duration.ofSeconds(20))
+                .withMinimumCalls(1)
+                .withHalfOpenCalls(1)
+                .withClock(clock);
+        call(breaker, true);
+        clock.advance(Duration.ofSeconds(20));
+
+        assertThrows(AssertionError.class, () -> Try.with(3).doAction(v -> { throw new AssertionError(); }, breaker).isSuccess());
+        assertThat(breaker.state(), is(CircuitBreaker.State.OPEN));
+
+        clock.advance(Duration.ofSeconds(20));
+        assertThat(call(breaker, false), is(true));
+        assertThat(breaker.state(), is(CircuitBreaker.State.CLOSED));
+    }
+
+    @Test void breakerShouldOpenWhenTooManyCallsAreSlow() {
+
+        ManualClock clock = new ManualClock();
+        CircuitBreaker breaker = CircuitBreaker.of(1.0, Duration.ofMinutes(1), Duration.ofMinutes(1))
+                .withMinimumCalls(2)
+                .withSlowCalls(Duration.ofSeconds(1), 0.5)
+                .withClock(clock);
+
+        call(breaker, false);
+        Try.with(3).doAction(v -> { clock.advance(Duration.ofSeconds(1)); return v; }, breaker).isSuccess();
+
+        assertThat(breaker.slowCallRate(), is(equalTo(0.5)));
+        assertThat(breaker.state(), is(CircuitBreaker.State.OPEN));
+    }
+
+    @Test void countsShouldRollOutOfTheWindow() {
+
+        ManualClock clock = new ManualClock();
+        CircuitBreaker breaker = CircuitBreaker.of(0.5, Duration.ofSeconds(10), Duration.ofMinutes(1))
+                .withMinimumCalls(3)
+                .withClock(clock);
+        call(breaker, true);
+        call(breaker, true);
+        clock.advance(Duration.ofSeconds(10));
+
+        call(breaker, true);
+
+        assertThat(breaker.state(), is(CircuitBreaker.State.CLOSED));
+    }
+}
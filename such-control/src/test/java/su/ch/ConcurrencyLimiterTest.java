@@ -0,0 +1,117 @@
+package su.ch;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+class ConcurrencyLimiterTest {
+
+    private static CompletableFuture<Boolean> hold(ConcurrencyLimiter limiter, CountDownLatch started, CountDownLatch release) {
+
+        return CompletableFuture.supplyAsync(() -> Try.with(3)
+                .doAction(v -> {
+                    started.countDown();
+                    await(release);
+                    return v;
+                }, limiter)
+                .isSuccess());
+    }
+
+    private static void await(CountDownLatch latch) {
+
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test void actionsOverTheLimitShouldBeRejected() throws InterruptedException, ExecutionException {
+
+        ConcurrencyLimiter limiter = ConcurrencyLimiter.aimd(1, 1, Duration.ofSeconds(1));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicReference<Exception> recovered = new AtomicReference<>();
+
+        CompletableFuture<Boolean> held = hold(limiter, started, release);
+        started.await();
+        boolean success = Try.with(3)
+                .doAction(v -> v, limiter)
+                .orRecover((e, v) -> { recovered.set(e); return v; })
+                .isSuccess();
+        release.countDown();
+
+        assertThat(success, is(false));
+        assertThat(recovered.get(), is(instanceOf(ConcurrencyLimiter.Rejected.class)));
+        assertThat(limiter.rejected(), is(equalTo(1L)));
+        assertThat(held.get(), is(true));
+        assertThat(limiter.inFlight(), is(equalTo(0)));
+    }
+
+    @Test void queueingActionsShouldWaitForTheLimit() throws InterruptedException, ExecutionException {
+
+        ConcurrencyLimiter limiter = ConcurrencyLimiter.aimd(1, 1, Duration.ofSeconds(1)).withQueueing(Duration.ofSeconds(5));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Boolean> held = hold(limiter, started, release);
+        started.await();
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> Try.with(3).doAction(v -> v, limiter).isSuccess());
+        Thread.sleep(20);
+        release.countDown();
+
+        assertThat(held.get(), is(true));
+        assertThat(queued.get(), is(true));
+        assertThat(limiter.rejected(), is(equalTo(0L)));
+    }
+
+    @Test void aimdShouldGrowWhileInUseAndShrinkOnFailures() {
+
+        ConcurrencyLimiter limiter = ConcurrencyLimiter.aimd(1, 10, Duration.ofSeconds(1));
+
+        for (int i = 0; i < 5; i++) {
+            Try.with(3).doAction(v -> v, limiter).isSuccess();
+        }
+        // one call at a time only uses so much of the limit
+        assertThat(limiter.limit(), is(equalTo(3)));
+
+        Try.with(3).doAction(v -> { throw new IllegalStateException(); }, limiter).isSuccess();
+        assertThat(limiter.limit(), is(equalTo(2)));
+    }
+
+    @Test void gradientShouldShrinkAsLatencyRises() {
+
+        ConcurrencyLimiter limiter = ConcurrencyLimiter.gradient(20, 100);
+
+        for (int i = 0; i < 50; i++) {
+            Try.with(3).doAction(v -> v, limiter).isSuccess();
+        }
+        int limit = limiter.limit();
+        for (int i = 0; i < 5; i++) {
+            Try.with(3).doAction(v -> { sleep(10); return v; }, limiter).isSuccess();
+        }
+
+        assertThat(limit, is(greaterThan(0)));
+        assertThat(limiter.limit(), is(lessThan(limit)));
+    }
+}
@@ -0,0 +1,89 @@
+package su.ch;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+class EitherArrayTest {
+
+    private static final List<Either<String, Integer>> eithers = ImmutableList.of(
+            Either.Right(3), Either.Left("II"), Either.Right(5), Either.Left("VIII"));
+
+    @Test void arrayShouldHoldItsElements() {
+
+        EitherArray<String, Integer> array = EitherArray.of(eithers);
+
+        assertThat(array.countRights(), is(equalTo(2)));
+        assertThat(array.getRight(2), is(equalTo(5)));
+        assertThat(array.getLeft(3), is(equalTo("VIII")));
+        assertThat(array.toEither(1).getError(), is(equalTo("II")));
+    }
+
+    @Test void mapShouldOnlyApplyToRightElements() {
+
+        EitherArray<String, Integer> mapped = EitherArray.of(eithers).map(i -> i * 2);
+
+        assertThat(mapped.getRight(0), is(equalTo(6)));
+        assertThat(mapped.getLeft(1), is(equalTo("II")));
+        assertThat(mapped.fold(0, Integer::sum), is(equalTo(16)));
+    }
+
+    @Test void elementsShouldBeVisitedByBranch() {
+
+        EitherArray<String, Integer> array = EitherArray.of(eithers);
+        List<Object> visited = new ArrayList<>();
+
+        array.forEachRight((v, i) -> visited.add(i + ":" + v));
+        array.forEachLeft((e, i) -> visited.add(i + ":" + e));
+
+        assertThat(visited, contains("0:3", "2:5", "1:II", "3:VIII"));
+        assertThat(array.nextLeft(2), is(equalTo(3)));
+        assertThat(array.nextRight(3), is(equalTo(-1)));
+    }
+
+    @Test void longArrayShouldMapAndFoldRightElements() {
+
+        EitherLongArray<String> array = new EitherLongArray<>(4);
+        for (int i = 0; i < 4; i++) {
+            array.setRight(i, i);
+        }
+        array.setLeft(2, "II");
+
+        EitherLongArray<String> mapped = array.map(v -> v * 7);
+
+        assertThat(mapped.toList(), contains(
+                EitherLong.Right(0L), EitherLong.Right(7L), EitherLong.Left("II"), EitherLong.Right(21L)));
+        assertThat(mapped.fold(0L, Long::sum), is(equalTo(28L)));
+    }
+
+    @Test void intArrayShouldMapAndFoldRightElements() {
+
+        EitherIntArray<String> array = EitherIntArray.of(ImmutableList.of(EitherInt.Right(3), EitherInt.Left("II"), EitherInt.Right(5)));
+
+        EitherIntArray<String> mapped = array.map(v -> v + 1);
+
+        assertThat(mapped.toList(), contains(EitherInt.Right(4), EitherInt.Left("II"), EitherInt.Right(6)));
+        assertThat(mapped.fold(0, Integer::sum), is(equalTo(10)));
+    }
+
+    @Test void doubleArrayShouldVisitLeftElements() {
+
+        EitherDoubleArray<String> array = new EitherDoubleArray<>(3);
+        array.setRight(0, 1.5);
+        array.setLeft(1, "II");
+        array.setRight(2, 2.5);
+        List<Object> visited = new ArrayList<>();
+
+        array.forEachLeft((e, i) -> visited.add(i + ":" + e));
+
+        assertThat(visited, contains("1:II"));
+        assertThat(array.fold(0.0, Double::sum), is(equalTo(4.0)));
+    }
+}
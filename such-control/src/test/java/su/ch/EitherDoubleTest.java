@@ -0,0 +1,42 @@
+package su.ch;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+class EitherDoubleTest {
+
+    @Test void rightShouldMapAndFlatMap() {
+
+        EitherDouble<String> either = EitherDouble.<String>Right(3.0)
+                .map(v -> v * 7)
+                .flatMap(v -> EitherDouble.Right(v + 1));
+
+        assertThat(either, is(equalTo(EitherDouble.Right(22.0))));
+    }
+
+    @Test void leftShouldShortCircuit() {
+
+        EitherDouble<String> either = EitherDouble.<String>Right(3.0)
+                .flatMap(v -> EitherDouble.Left("VIII"))
+                .map(v -> v * 7);
+
+        assertThat(either, is(equalTo(EitherDouble.Left("VIII"))));
+        assertThat(either.getOrElse(-1.0), is(equalTo(-1.0)));
+    }
+
+    @Test void foldShouldApplyTheMatchingBranch() {
+
+        assertThat(EitherDouble.<String>Right(5.0).fold(String::length, v -> (int) v), is(equalTo(5)));
+        assertThat(EitherDouble.<String>Left("VIII").fold(String::length, v -> (int) v), is(equalTo(4)));
+    }
+
+    @Test void shouldConvertToAndFromEither() {
+
+        assertThat(EitherDouble.fromEither(Either.<String, Double>Right(5.0)), is(equalTo(EitherDouble.Right(5.0))));
+        assertThat(EitherDouble.fromEither(Either.<String, Double>Left("VIII")), is(equalTo(EitherDouble.Left("VIII"))));
+        assertThat(EitherDouble.<String>Right(5.0).toEither(), is(equalTo(Either.Right(5.0))));
+    }
+}
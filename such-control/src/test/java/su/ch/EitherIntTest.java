@@ -0,0 +1,42 @@
+package su.ch;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+class EitherIntTest {
+
+    @Test void rightShouldMapAndFlatMap() {
+
+        EitherInt<String> either = EitherInt.<String>Right(3)
+                .map(v -> v * 7)
+                .flatMap(v -> EitherInt.Right(v + 1));
+
+        assertThat(either, is(equalTo(EitherInt.Right(22))));
+    }
+
+    @Test void leftShouldShortCircuit() {
+
+        EitherInt<String> either = EitherInt.<String>Right(3)
+                .flatMap(v -> EitherInt.Left("VIII"))
+                .map(v -> v * 7);
+
+        assertThat(either, is(equalTo(EitherInt.Left("VIII"))));
+        assertThat(either.getOrElse(-1), is(equalTo(-1)));
+    }
+
+    @Test void foldShouldApplyTheMatchingBranch() {
+
+        assertThat(EitherInt.<String>Right(5).fold(String::length, v -> v), is(equalTo(5)));
+        assertThat(EitherInt.<String>Left("VIII").fold(String::length, v -> v), is(equalTo(4)));
+    }
+
+    @Test void shouldConvertToAndFromEither() {
+
+        assertThat(EitherInt.fromEither(Either.<String, Integer>Right(5)), is(equalTo(EitherInt.Right(5))));
+        assertThat(EitherInt.fromEither(Either.<String, Integer>Left("VIII")), is(equalTo(EitherInt.Left("VIII"))));
+        assertThat(EitherInt.<String>Right(5).toEither(), is(equalTo(Either.Right(5))));
+    }
+}
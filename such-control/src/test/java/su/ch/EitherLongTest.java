@@ -0,0 +1,42 @@
+package su.ch;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+class EitherLongTest {
+
+    @Test void rightShouldMapAndFlatMap() {
+
+        EitherLong<String> either = EitherLong.<String>Right(3L)
+                .map(v -> v * 7)
+                .flatMap(v -> EitherLong.Right(v + 1));
+
+        assertThat(either, is(equalTo(EitherLong.Right(22L))));
+    }
+
+    @Test void leftShouldShortCircuit() {
+
+        EitherLong<String> either = EitherLong.<String>Right(3L)
+                .flatMap(v -> EitherLong.Left("VIII"))
+                .map(v -> v * 7);
+
+        assertThat(either, is(equalTo(EitherLong.Left("VIII"))));
+        assertThat(either.getOrElse(-1L), is(equalTo(-1L)));
+    }
+
+    @Test void foldShouldApplyTheMatchingBranch() {
+
+        assertThat(EitherLong.<String>Right(5L).fold(String::length, v -> (int) v), is(equalTo(5)));
+        assertThat(EitherLong.<String>Left("VIII").fold(String::length, v -> (int) v), is(equalTo(4)));
+    }
+
+    @Test void shouldConvertToAndFromEither() {
+
+        assertThat(EitherLong.fromEither(Either.<String, Long>Right(5L)), is(equalTo(EitherLong.Right(5L))));
+        assertThat(EitherLong.fromEither(Either.<String, Long>Left("VIII")), is(equalTo(EitherLong.Left("VIII"))));
+        assertThat(EitherLong.<String>Right(5L).toEither(), is(equalTo(Either.Right(5L))));
+    }
+}
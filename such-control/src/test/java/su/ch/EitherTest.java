@@ -3,11 +3,33 @@ package su.ch;
 import com.google.common.collect.ImmutableList;
 import org.junit.jupiter.api.Test;
 
+import java.lang.management.ManagementFactory;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+import java.util.stream.StreamSupport;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @SuppressWarnings("unchecked") class EitherTest {
 
@@ -87,4 +109,326 @@ import static org.hamcrest.Matchers.contains;
 
         assertThat(rights, contains(Either.Right(3), Either.Right(5)));
     }
+
+    @Test void partitionShouldReadLargeInputsOnce() {
+
+        List<Either<?, ?>> eithers = largeInput();
+        AtomicInteger reads = new AtomicInteger();
+
+        Pair<List<Either.Left<?, ?>>, List<Either.Right<?, ?>>> partition = Either.partition(counting(eithers, reads));
+
+        assertThat(reads.get(), is(equalTo(eithers.size())));
+        assertThat(partition.getLeft().size() + partition.getRight().size(), is(equalTo(eithers.size())));
+    }
+
+    @Test void partitionLeftShouldAllocateLinearly() {
+
+        // four times the input should take about four times the memory, not sixteen
+        List<Either<?, ?>> smallInput = input(10_000);
+        List<Either<?, ?>> largeInput = input(40_000);
+
+        long small = allocatedBytes(() -> Either.partitionLeft(smallInput));
+        long large = allocatedBytes(() -> Either.partitionLeft(largeInput));
+
+        assertThat(large, is(lessThan(8 * small)));
+        assertThat(Either.partitionLeft(input(4)).getLeft(), contains(
+                Maybe.Just(Either.Left(0)), Maybe.Nothing(), Maybe.Just(Either.Left(3))));
+    }
+
+    @Test void partitionRightShouldAllocateLinearly() {
+
+        List<Either<?, ?>> smallInput = input(10_000);
+        List<Either<?, ?>> largeInput = input(40_000);
+
+        long small = allocatedBytes(() -> Either.partitionRight(smallInput));
+        long large = allocatedBytes(() -> Either.partitionRight(largeInput));
+
+        assertThat(large, is(lessThan(8 * small)));
+        assertThat(Either.partitionRight(input(4)).getRight(), contains(
+                Maybe.Just(Either.Right(1)), Maybe.Just(Either.Right(2)), Maybe.Nothing()));
+    }
+
+    @Test void toPartitionShouldCollectInParallel() {
+
+        List<Either<?, ?>> eithers = largeInput();
+
+        Pair<List<Either.Left<?, ?>>, List<Either.Right<?, ?>>> expected = Either.partition(eithers);
+        Pair<List<Either.Left<?, ?>>, List<Either.Right<?, ?>>> partition = eithers.parallelStream().collect(Either.toPartition());
+
+        assertThat(errors(partition.getLeft()), is(equalTo(errors(expected.getLeft()))));
+        assertThat(partition.getRight(), is(equalTo(expected.getRight())));
+    }
+
+    @Test void toLeftsAndToRightsShouldCollectInParallel() {
+
+        List<Either<?, ?>> eithers = largeInput();
+
+        assertThat(errors(eithers.parallelStream().collect(Either.toLefts())), is(equalTo(errors(Either.lefts(eithers)))));
+        assertThat(eithers.parallelStream().collect(Either.toRights()), is(equalTo(Either.rights(eithers))));
+    }
+
+    @Test void toPartitionLeftShouldCollectInParallel() {
+
+        List<Either<?, ?>> eithers = largeInput();
+
+        assertAligned(Either.partitionLeft(eithers), eithers.parallelStream().collect(Either.toPartitionLeft()));
+    }
+
+    @Test void toPartitionRightShouldCollectInParallel() {
+
+        List<Either<?, ?>> eithers = largeInput();
+
+        assertAligned(Either.partitionRight(eithers), eithers.parallelStream().collect(Either.toPartitionRight()));
+    }
+
+    @Test void alignedPartitionCollectorsShouldCombineAtAnySplit() {
+
+        List<Either<?, ?>> eithers = ImmutableList.of(
+                Either.Left(0), Either.Right(1), Either.Right(2), Either.Left(3), Either.Left(4),
+                Either.Right(5), Either.Left(6), Either.Right(7), Either.Left(8), Either.Left(9));
+
+        for (int i = 0; i <= eithers.size(); i++) {
+            assertAligned(Either.partitionLeft(eithers), collectSplit(Either.toPartitionLeft(), eithers, i));
+            assertAligned(Either.partitionRight(eithers), collectSplit(Either.toPartitionRight(), eithers, i));
+        }
+    }
+
+    @Test void leftsIterableShouldFilterLazily() {
+
+        AtomicInteger reads = new AtomicInteger();
+        List<Either<?, ?>> eithers = ImmutableList.of(Either.Right(3), Either.Left("VIII"), Either.Right(5), Either.Left("XIII"));
+        Iterable<Either<?, ?>> counting = () -> {
+            Iterator<Either<?, ?>> iterator = eithers.iterator();
+            return new Iterator<Either<?, ?>>() {
+                @Override public boolean hasNext() { return iterator.hasNext(); }
+                @Override public Either<?, ?> next() { reads.incrementAndGet(); return iterator.next(); }
+            };
+        };
+
+        assertThat(Either.leftsIterable(counting).iterator().next().getError(), is(equalTo("VIII")));
+        assertThat(reads.get(), is(equalTo(2)));
+    }
+
+    @Test void rightsIterableShouldReturnRights() {
+
+        Iterable<Either.Right<?, ?>> rights = Either.rightsIterable(ImmutableList.of(Either.Right(3), Either.Left("VIII"), Either.Right(5)));
+
+        assertThat(rights, contains(Either.Right(3), Either.Right(5)));
+    }
+
+    @Test void leftsSpliteratorShouldSplitForParallelStreams() {
+
+        List<Either<?, ?>> eithers = largeInput();
+
+        Spliterator<Either.Left<?, ?>> spliterator = Either.leftsSpliterator(eithers);
+
+        assertThat(spliterator.estimateSize(), is(lessThanOrEqualTo((long) eithers.size())));
+        assertThat(spliterator.trySplit(), is(notNullValue()));
+        assertThat(StreamSupport.stream(Either.leftsSpliterator(eithers), true).count(), is(equalTo((long) Either.lefts(eithers).size())));
+        assertThat(StreamSupport.stream(Either.rightsSpliterator(eithers), true).count(), is(equalTo((long) Either.rights(eithers).size())));
+    }
+
+    @Test void rightsSpliteratorShouldPreserveOrder() {
+
+        List<Either<?, ?>> eithers = largeInput();
+
+        assertThat(StreamSupport.stream(Either.rightsSpliterator(eithers), true).collect(Either.toRights()), is(equalTo(Either.rights(eithers))));
+    }
+
+    private static <A, R> R collectSplit(Collector<Either<?, ?>, A, R> collector, List<Either<?, ?>> eithers, int split) {
+
+        A head = collector.supplier().get();
+        A tail = collector.supplier().get();
+        eithers.subList(0, split).forEach(e -> collector.accumulator().accept(head, e));
+        eithers.subList(split, eithers.size()).forEach(e -> collector.accumulator().accept(tail, e));
+        return collector.finisher().apply(collector.combiner().apply(head, tail));
+    }
+
+    private static void assertAligned(Pair<List<Maybe<Either.Left<?, ?>>>, List<Maybe<Either.Right<?, ?>>>> expected,
+                                      Pair<List<Maybe<Either.Left<?, ?>>>, List<Maybe<Either.Right<?, ?>>>> actual) {
+
+        List<Object> expectedErrors = new ArrayList<>();
+        List<Object> actualErrors = new ArrayList<>();
+        expected.getLeft().forEach(l -> expectedErrors.add(l instanceof Maybe.Nothing ? l : l.get().getError()));
+        actual.getLeft().forEach(l -> actualErrors.add(l instanceof Maybe.Nothing ? l : l.get().getError()));
+
+        assertThat(actualErrors, is(equalTo(expectedErrors)));
+        assertThat(actual.getRight(), is(equalTo(expected.getRight())));
+    }
+
+    private static List<Object> errors(List<Either.Left<?, ?>> lefts) {
+
+        // `Left` values are equal to one another regardless of their errors
+        List<Object> errors = new ArrayList<>(lefts.size());
+        lefts.forEach(l -> errors.add(l.getError()));
+        return errors;
+    }
+
+    // a view of `eithers` which counts the elements read from it
+    private static Collection<Either<?, ?>> counting(List<Either<?, ?>> eithers, AtomicInteger reads) {
+
+        return new AbstractCollection<Either<?, ?>>() {
+            @Override public int size() { return eithers.size(); }
+            @Override public Iterator<Either<?, ?>> iterator() {
+                Iterator<Either<?, ?>> iterator = eithers.iterator();
+                return new Iterator<Either<?, ?>>() {
+                    @Override public boolean hasNext() { return iterator.hasNext(); }
+                    @Override public Either<?, ?> next() { reads.incrementAndGet(); return iterator.next(); }
+                };
+            }
+        };
+    }
+
+    private static List<Either<?, ?>> largeInput() {
+
+        return input(500_000);
+    }
+
+    private static List<Either<?, ?>> input(int size) {
+
+        List<Either<?, ?>> eithers = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            eithers.add(i % 3 == 0 ? Either.Left(i) : Either.Right(i));
+        }
+        return eithers;
+    }
+
+    // the bytes allocated by this thread while running `action`, once it has been warmed up
+    private static long allocatedBytes(Supplier<?> action) {
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long id = Thread.currentThread().getId();
+        action.get();
+        long before = threads.getThreadAllocatedBytes(id);
+        action.get();
+        return threads.getThreadAllocatedBytes(id) - before;
+    }
+
+    @Test void sequenceShouldCollectRights() {
+
+        Either<String, List<Integer>> sequenced = Either.sequence(ImmutableList.of(Either.Right(3), Either.Right(5)));
+
+        assertThat(sequenced.get(), contains(3, 5));
+    }
+
+    @Test void traverseShouldStopAtTheFirstLeft() {
+
+        AtomicInteger calls = new AtomicInteger();
+
+        Either<String, List<Integer>> traversed = Either.traverse(ImmutableList.of(1, 2, 3, 4), i -> {
+            calls.incrementAndGet();
+            return i % 2 == 0 ? Either.Left("even " + i) : Either.Right(i);
+        });
+
+        assertThat(traversed.getError(), is(equalTo("even 2")));
+        assertThat(calls.get(), is(equalTo(2)));
+    }
+
+    @Test void parallelTraverseShouldReturnTheFirstLeftInOrder() {
+
+        List<Integer> items = new ArrayList<>();
+        for (int i = 0; i < 1_000_000; i++) {
+            items.add(i);
+        }
+        AtomicInteger calls = new AtomicInteger();
+        ForkJoinPool pool = new ForkJoinPool(4);
+
+        try {
+            Either<String, List<Integer>> traversed = Either.traverse(items, i -> {
+                calls.incrementAndGet();
+                return i == 10 || i % 100_000 == 99_999 ? Either.Left("left " + i) : Either.Right(i);
+            }, pool);
+            Either<String, List<Integer>> all = Either.traverse(items, Either::Right, pool);
+
+            assertThat(traversed.getError(), is(equalTo("left 10")));
+            assertThat(calls.get(), is(lessThan(items.size())));
+            assertThat(all.get(), is(equalTo(items)));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test void mapNShouldCombineRightsInOrder() throws Exception {
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        List<Supplier<Either<String, Integer>>> suppliers = ImmutableList.of(
+                () -> Either.Right(1), () -> Either.Right(2), () -> Either.Right(3));
+
+        try {
+            Either<String, List<Integer>> zipped = Either.<String, Integer, List<Integer>>mapN(suppliers, values -> values, executor)
+                    .toCompletableFuture()
+                    .get();
+
+            assertThat(zipped.get(), contains(1, 2, 3));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test void zipParShouldReturnTheFirstLeft() throws Exception {
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch never = new CountDownLatch(1);
+
+        try {
+            Either<String, String> zipped = Either.<String, Integer, Integer, String>zipPar(
+                    () -> Either.Left("I"),
+                    () -> {
+                        try {
+                            never.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return Either.Right(2);
+                    },
+                    (a, b) -> a + "" + b,
+                    executor)
+                    .toCompletableFuture()
+                    .get(10, TimeUnit.SECONDS);
+
+            assertThat(zipped.getError(), is(equalTo("I")));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test void mapNShouldCompleteExceptionallyWhenASupplierThrowsAnError() {
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        List<Supplier<Either<String, Integer>>> suppliers = ImmutableList.of(
+                () -> Either.Right(1), () -> { throw new AssertionError("II"); });
+
+        try {
+            ExecutionException thrown = assertThrows(ExecutionException.class, () ->
+                    Either.<String, Integer, Integer>mapN(suppliers, List::size, executor)
+                            .toCompletableFuture()
+                            .get(10, TimeUnit.SECONDS));
+
+            assertThat(thrown.getCause(), is(instanceOf(AssertionError.class)));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test void mapNShouldNotLeaveItsThreadInterrupted() throws Exception {
+
+        // unlike a ThreadPoolExecutor, a ForkJoinPool doesn't clear interrupts between tasks
+        ExecutorService executor = new ForkJoinPool(1);
+        List<Supplier<Either<String, Integer>>> rights = ImmutableList.of(() -> Either.Right(1), () -> Either.Right(2));
+        List<Supplier<Either<String, Integer>>> lefts = ImmutableList.of(() -> Either.Left("I"), () -> Either.Right(2));
+
+        try {
+            for (int i = 0; i < 100; i++) {
+                Either.<String, Integer, Integer>mapN(i % 2 == 0 ? rights : lefts, List::size, executor)
+                        .toCompletableFuture()
+                        .get(10, TimeUnit.SECONDS);
+
+                boolean interrupted = executor.submit(() -> Thread.currentThread().isInterrupted()).get(10, TimeUnit.SECONDS);
+
+                assertThat(interrupted, is(false));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
 }
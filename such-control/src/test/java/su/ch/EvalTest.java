@@ -0,0 +1,129 @@
+package su.ch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+
+class EvalTest {
+
+    private static Eval<Long> sum(long n) {
+
+        return n == 0
+                ? Eval.now(0L)
+                : Eval.defer(() -> sum(n - 1)).map(s -> s + n);
+    }
+
+    private static Eval<Long> memoizedSum(long n) {
+
+        return n == 0
+                ? Eval.later(() -> 0L)
+                : Eval.defer(() -> memoizedSum(n - 1)).map(s -> s + n).memoize();
+    }
+
+    @Test void laterShouldComputeOnlyWhenNeeded() {
+
+        AtomicInteger calls = new AtomicInteger();
+
+        Eval<Maybe<Integer>> later = Eval.later(() -> Maybe.Just(calls.incrementAndGet()));
+        Eval<Integer> mapped = later.map(m -> m.get() + 5);
+
+        assertThat(calls.get(), is(equalTo(0)));
+        assertThat(mapped.get(), is(equalTo(6)));
+        assertThat(later.get(), is(equalTo(Maybe.Just(1))));
+        assertThat(calls.get(), is(equalTo(1)));
+    }
+
+    @Test void alwaysShouldComputeEveryTime() {
+
+        AtomicInteger calls = new AtomicInteger();
+
+        Eval<Integer> always = Eval.always(calls::incrementAndGet);
+
+        assertThat(always.get(), is(equalTo(1)));
+        assertThat(always.get(), is(equalTo(2)));
+
+        Eval<Integer> memoized = always.memoize();
+
+        assertThat(memoized.get(), is(equalTo(3)));
+        assertThat(memoized.get(), is(equalTo(3)));
+    }
+
+    @Test void laterShouldComputeOnceAcrossThreads() throws Exception {
+
+        AtomicInteger calls = new AtomicInteger();
+        Eval<Integer> later = Eval.later(calls::incrementAndGet);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        try {
+            List<Callable<Integer>> reads = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                reads.add(later::get);
+            }
+            for (Future<Integer> read : executor.invokeAll(reads)) {
+                assertThat(read.get(), is(equalTo(1)));
+            }
+            assertThat(calls.get(), is(equalTo(1)));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test void deepFlatMapShouldRunInConstantStack() {
+
+        Eval<Integer> eval = Eval.now(0);
+        for (int i = 0; i < 1_000_000; i++) {
+            eval = eval.flatMap(n -> Eval.now(n + 1));
+        }
+
+        assertThat(eval.get(), is(equalTo(1_000_000)));
+    }
+
+    @Test void recursiveDeferShouldRunInConstantStack() {
+
+        assertThat(sum(1_000_000).get(), is(equalTo(500_000_500_000L)));
+    }
+
+    @Test void memoizedChainShouldComputeOnce() {
+
+        AtomicInteger calls = new AtomicInteger();
+
+        Eval<Integer> memoized = Eval.now(3).map(i -> i + calls.incrementAndGet()).memoize();
+
+        assertThat(memoized.get(), is(equalTo(4)));
+        assertThat(memoized.get(), is(equalTo(4)));
+        assertThat(calls.get(), is(equalTo(1)));
+    }
+
+    @Test void recursiveMemoizedLaterShouldRunInConstantStack() {
+
+        Eval<Long> sum = memoizedSum(1_000_000);
+
+        assertThat(sum, is(instanceOf(Eval.Later.class)));
+        assertThat(sum.get(), is(equalTo(500_000_500_000L)));
+        assertThat(sum.get(), is(equalTo(500_000_500_000L)));
+    }
+
+    @Test void deeplyNestedMemoizedChainsShouldRunInConstantStack() {
+
+        AtomicInteger calls = new AtomicInteger();
+        Eval<Integer> eval = Eval.later(calls::incrementAndGet);
+        for (int i = 0; i < 1_000_000; i++) {
+            eval = eval.map(n -> n + 1).memoize();
+        }
+
+        assertThat(eval.get(), is(equalTo(1_000_001)));
+        assertThat(eval.get(), is(equalTo(1_000_001)));
+        assertThat(calls.get(), is(equalTo(1)));
+    }
+}
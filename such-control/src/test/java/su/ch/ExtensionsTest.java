@@ -0,0 +1,55 @@
+package su.ch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+class ExtensionsTest {
+
+    @Test void justShouldMapInline() {
+
+        Maybe<Integer> maybe = Extensions.flatMapInline(
+                Extensions.mapInline(Maybe.Just(3), i -> i * 7),
+                i -> Maybe.Just(i + 1));
+
+        assertThat(maybe, is(equalTo(Maybe.Just(22))));
+        assertThat(maybe, is(equalTo(Maybe.Just(3).map((Integer i) -> i * 7).flatMap(i -> Maybe.Just((Integer) i + 1)))));
+    }
+
+    @Test void nothingShouldShortCircuit() {
+
+        AtomicInteger calls = new AtomicInteger();
+        Maybe<Integer> nothing = Maybe.Nothing();
+
+        assertThat(Extensions.mapInline(nothing, calls::addAndGet), is(sameInstance(nothing)));
+        assertThat(Extensions.getOrElse(nothing, () -> 8), is(equalTo(8)));
+        assertThat(Extensions.fold(nothing, () -> "none", String::valueOf), is(equalTo("none")));
+        assertThat(calls.get(), is(equalTo(0)));
+    }
+
+    @Test void rightShouldMapInline() {
+
+        Either<String, Integer> either = Extensions.flatMapInline(
+                Extensions.mapInline(Either.<String, Integer>Right(3), i -> i * 7),
+                i -> Either.Right(i + 1));
+
+        assertThat(either.get(), is(equalTo(22)));
+        assertThat(Extensions.getOrElse(either, String::length), is(equalTo(22)));
+    }
+
+    @Test void leftShouldShortCircuit() {
+
+        AtomicInteger calls = new AtomicInteger();
+        Either<String, Integer> left = Either.Left("VIII");
+
+        assertThat(Extensions.mapInline(left, calls::addAndGet), is(sameInstance(left)));
+        assertThat(Extensions.getOrElse(left, String::length), is(equalTo(4)));
+        assertThat(Extensions.fold(left, e -> "left " + e, r -> "right " + r), is(equalTo("left VIII")));
+        assertThat(calls.get(), is(equalTo(0)));
+    }
+}
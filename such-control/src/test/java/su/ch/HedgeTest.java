@@ -0,0 +1,183 @@
+package su.ch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertTimeout;
+
+class HedgeTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach void shutdown() {
+
+        executor.shutdownNow();
+    }
+
+    @Test void fastActionsShouldNotBeHedged() {
+
+        Hedge hedge = Hedge.after(Duration.ofSeconds(5), executor);
+        AtomicInteger calls = new AtomicInteger();
+
+        boolean success = Try.with(3).doAction(v -> calls.incrementAndGet(), hedge).isSuccess();
+
+        assertThat(success, is(true));
+        assertThat(calls.get(), is(equalTo(1)));
+        assertThat(hedge.hedges(), is(equalTo(0L)));
+    }
+
+    @Test void slowActionShouldBeHedgedAndCancelled() {
+
+        Hedge hedge = Hedge.after(Duration.ofMillis(10), executor);
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch cancelled = new CountDownLatch(1);
+
+        boolean success = Try.with(3)
+                .doAction(v -> {
+                    if (calls.incrementAndGet() == 1) {
+                        try {
+                            Thread.sleep(10_000);
+                        } catch (InterruptedException e) {
+                            cancelled.countDown();
+                        }
+                    }
+                    return v;
+                }, hedge)
+                .isSuccess();
+
+        assertThat(success, is(true));
+        assertThat(calls.get(), is(equalTo(2)));
+        assertThat(hedge.hedges(), is(equalTo(1L)));
+        assertThat(hedge.hedgeWins(), is(equalTo(1L)));
+        assertTimeout(Duration.ofSeconds(5), () -> cancelled.await());
+    }
+
+    @Test void stageShouldFailWhenEveryAttemptFails() {
+
+        Hedge hedge = Hedge.after(Duration.ofMillis(10), executor);
+        IllegalStateException thrown = new IllegalStateException();
+        AtomicReference<Exception> recovered = new AtomicReference<>();
+
+        boolean success = Try.with(3)
+                .doAction(v -> { throw thrown; }, hedge)
+                .orRecover((e, v) -> { recovered.set(e); return v; })
+                .isSuccess();
+
+        assertThat(success, is(false));
+        assertThat(recovered.get(), is(sameInstance(thrown)));
+    }
+
+    @Test void thresholdShouldFollowThePercentile() {
+
+        Hedge hedge = Hedge.percentile(0.5, 32, executor);
+
+        assertThat(hedge.threshold(), is(equalTo(Duration.ofNanos(Long.MAX_VALUE))));
+
+        for (int i = 0; i < 32; i++) {
+            Try.with(3).doAction(v -> v, hedge).isSuccess();
+        }
+
+        assertThat(hedge.threshold(), is(lessThan(Duration.ofSeconds(1))));
+        assertThat(hedge.calls(), is(equalTo(32L)));
+    }
+
+    @Test void hedgedLatencyShouldBeTimedFromTheFirstAttempt() {
+
+        Hedge hedge = Hedge.percentile(1.0, 1, executor);
+        AtomicInteger calls = new AtomicInteger();
+
+        Try.with(3).doAction(v -> { sleep(50); return v; }, hedge).isSuccess();
+        Try.with(3)
+                .doAction(v -> {
+                    if (calls.incrementAndGet() == 1) {
+                        sleep(10_000);
+                    }
+                    return v;
+                }, hedge)
+                .isSuccess();
+
+        assertThat(hedge.hedgeWins(), is(equalTo(1L)));
+        assertThat(hedge.threshold(), is(greaterThanOrEqualTo(Duration.ofMillis(50))));
+    }
+
+    @Test void interruptedCallerShouldCancelTheAttemptsAndKeepTheInterrupt() {
+
+        Hedge hedge = Hedge.after(Duration.ofSeconds(5), executor);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch cancelled = new CountDownLatch(1);
+        Thread caller = Thread.currentThread();
+        executor.execute(() -> {
+            try {
+                started.await();
+                caller.interrupt();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        boolean success;
+        boolean interrupted;
+        try {
+            success = Try.with(3)
+                    .doAction(v -> {
+                        started.countDown();
+                        try {
+                            Thread.sleep(10_000);
+                        } catch (InterruptedException e) {
+                            cancelled.countDown();
+                        }
+                        return v;
+                    }, hedge)
+                    .isSuccess();
+        } finally {
+            interrupted = Thread.interrupted();
+        }
+
+        assertThat(success, is(false));
+        assertThat(interrupted, is(true));
+        assertTimeout(Duration.ofSeconds(5), () -> cancelled.await());
+    }
+
+    @Test void winningAttemptShouldNotBeLeftInterrupted() throws Exception {
+
+        // unlike a ThreadPoolExecutor, a ForkJoinPool doesn't clear interrupts between tasks
+        ExecutorService pool = new ForkJoinPool(1);
+        Hedge hedge = Hedge.after(Duration.ofSeconds(10), pool);
+
+        try {
+            for (int i = 0; i < 500; i++) {
+                Try.with(1).doAction(v -> v, hedge).isSuccess();
+
+                boolean interrupted = pool.submit(() -> Thread.currentThread().isInterrupted()).get(10, TimeUnit.SECONDS);
+
+                assertThat(interrupted, is(false));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static void sleep(long millis) {
+
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
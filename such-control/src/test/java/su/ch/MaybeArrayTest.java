@@ -0,0 +1,97 @@
+package su.ch;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+class MaybeArrayTest {
+
+    private static final List<Maybe<Integer>> maybes = ImmutableList.of(
+            Maybe.Just(3), Maybe.Nothing(), Maybe.Just(5), Maybe.Nothing(), Maybe.Just(8));
+
+    @Test void arrayShouldHoldItsElements() {
+
+        MaybeArray<Integer> array = MaybeArray.of(maybes);
+
+        assertThat(array.toList(), is(equalTo(maybes)));
+        assertThat(array.count(), is(equalTo(3)));
+        assertThat(array.getOrElse(1, -1), is(equalTo(-1)));
+    }
+
+    @Test void mapShouldOnlyApplyToPresentElements() {
+
+        List<Integer> applied = new ArrayList<>();
+
+        MaybeArray<Integer> mapped = MaybeArray.of(maybes).map(i -> { applied.add(i); return i * 2; });
+
+        assertThat(applied, contains(3, 5, 8));
+        assertThat(mapped.toList(), contains(Maybe.Just(6), Maybe.Nothing(), Maybe.Just(10), Maybe.Nothing(), Maybe.Just(16)));
+    }
+
+    @Test void foldShouldCombinePresentElements() {
+
+        assertThat(MaybeArray.of(maybes).fold(0, Integer::sum), is(equalTo(16)));
+    }
+
+    @Test void presentElementsShouldBeIterableByIndex() {
+
+        MaybeArray<Integer> array = MaybeArray.of(maybes);
+        List<Integer> indices = new ArrayList<>();
+
+        for (int i = array.nextPresent(0); i >= 0; i = array.nextPresent(i + 1)) {
+            indices.add(i);
+        }
+
+        assertThat(indices, contains(0, 2, 4));
+    }
+
+    @Test void clearShouldMakeAnElementAbsent() {
+
+        MaybeArray<Integer> array = MaybeArray.of(maybes);
+        array.clear(0);
+        array.set(1, 4);
+
+        assertThat(array.toMaybe(0), is(equalTo(Maybe.Nothing())));
+        assertThat(array.toMaybe(1), is(equalTo(Maybe.Just(4))));
+    }
+
+    @Test void longArrayShouldWorkUnboxed() {
+
+        MaybeLongArray array = new MaybeLongArray(1_000_000);
+        for (int i = 0; i < array.getSize(); i += 3) {
+            array.set(i, i);
+        }
+
+        MaybeLongArray doubled = array.map(v -> v * 2);
+
+        assertThat(doubled.count(), is(equalTo(333_334)));
+        assertThat(doubled.fold(0L, Long::sum), is(equalTo(2 * array.fold(0L, Long::sum))));
+        assertThat(doubled.toMaybeLong(3), is(equalTo(MaybeLong.Just(6L))));
+        assertThat(doubled.toMaybeLong(4), is(equalTo(MaybeLong.Nothing())));
+    }
+
+    @Test void doubleArrayShouldConvertToBoxed() {
+
+        MaybeDoubleArray array = MaybeDoubleArray.of(ImmutableList.of(MaybeDouble.Just(1.5), MaybeDouble.Nothing()));
+
+        assertThat(array.boxed().toList(), contains(Maybe.Just(1.5), Maybe.Nothing()));
+    }
+
+    @Test void intArrayShouldWorkUnboxed() {
+
+        MaybeIntArray array = MaybeIntArray.of(ImmutableList.of(MaybeInt.Just(3), MaybeInt.Nothing(), MaybeInt.Just(5)));
+
+        MaybeIntArray mapped = array.map(v -> v * 2);
+
+        assertThat(mapped.fold(0, Integer::sum), is(equalTo(16)));
+        assertThat(mapped.toMaybeInt(1), is(equalTo(MaybeInt.Nothing())));
+        assertThat(mapped.boxed().toList(), contains(Maybe.Just(6), Maybe.Nothing(), Maybe.Just(10)));
+    }
+}
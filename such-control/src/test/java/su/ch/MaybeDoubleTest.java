@@ -0,0 +1,49 @@
+package su.ch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.OptionalDouble;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+class MaybeDoubleTest {
+
+    @Test void justShouldMapAndFlatMap() {
+
+        MaybeDouble maybe = MaybeDouble.Just(3.0)
+                .map(v -> v * 7.0)
+                .flatMap(v -> MaybeDouble.Just(v + 1.0));
+
+        assertThat(maybe, is(equalTo(MaybeDouble.Just(22.0))));
+    }
+
+    @Test void nothingShouldShortCircuit() {
+
+        MaybeDouble maybe = MaybeDouble.Just(3.0)
+                .flatMap(v -> MaybeDouble.Nothing())
+                .map(v -> v * 7.0);
+
+        assertThat(maybe, is(sameInstance(MaybeDouble.Nothing())));
+        assertThat(maybe.orElse(-1.0), is(equalTo(-1.0)));
+        assertThat(maybe.orElseGet(() -> 3.0), is(equalTo(3.0)));
+    }
+
+    @Test void shouldConvertToAndFromMaybe() {
+
+        assertThat(MaybeDouble.fromMaybe(Maybe.Just(5.0)), is(equalTo(MaybeDouble.Just(5.0))));
+        assertThat(MaybeDouble.fromMaybe(Maybe.Nothing()), is(equalTo(MaybeDouble.Nothing())));
+        assertThat(MaybeDouble.Just(5.0).toMaybe(), is(equalTo(Maybe.Just(5.0))));
+        assertThat(MaybeDouble.Nothing().toMaybe(), is(equalTo(Maybe.Nothing())));
+    }
+
+    @Test void shouldConvertToAndFromOptional() {
+
+        assertThat(MaybeDouble.fromOptional(OptionalDouble.of(5.0)), is(equalTo(MaybeDouble.Just(5.0))));
+        assertThat(MaybeDouble.fromOptional(OptionalDouble.empty()), is(equalTo(MaybeDouble.Nothing())));
+        assertThat(MaybeDouble.Just(5.0).toOptional(), is(equalTo(OptionalDouble.of(5.0))));
+        assertThat(MaybeDouble.Nothing().toOptional(), is(equalTo(OptionalDouble.empty())));
+    }
+}
@@ -0,0 +1,49 @@
+package su.ch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.OptionalInt;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+class MaybeIntTest {
+
+    @Test void justShouldMapAndFlatMap() {
+
+        MaybeInt maybe = MaybeInt.Just(3)
+                .map(v -> v * 7)
+                .flatMap(v -> MaybeInt.Just(v + 1));
+
+        assertThat(maybe, is(equalTo(MaybeInt.Just(22))));
+    }
+
+    @Test void nothingShouldShortCircuit() {
+
+        MaybeInt maybe = MaybeInt.Just(3)
+                .flatMap(v -> MaybeInt.Nothing())
+                .map(v -> v * 7);
+
+        assertThat(maybe, is(sameInstance(MaybeInt.Nothing())));
+        assertThat(maybe.orElse(-1), is(equalTo(-1)));
+        assertThat(maybe.orElseGet(() -> 3), is(equalTo(3)));
+    }
+
+    @Test void shouldConvertToAndFromMaybe() {
+
+        assertThat(MaybeInt.fromMaybe(Maybe.Just(5)), is(equalTo(MaybeInt.Just(5))));
+        assertThat(MaybeInt.fromMaybe(Maybe.Nothing()), is(equalTo(MaybeInt.Nothing())));
+        assertThat(MaybeInt.Just(5).toMaybe(), is(equalTo(Maybe.Just(5))));
+        assertThat(MaybeInt.Nothing().toMaybe(), is(equalTo(Maybe.Nothing())));
+    }
+
+    @Test void shouldConvertToAndFromOptional() {
+
+        assertThat(MaybeInt.fromOptional(OptionalInt.of(5)), is(equalTo(MaybeInt.Just(5))));
+        assertThat(MaybeInt.fromOptional(OptionalInt.empty()), is(equalTo(MaybeInt.Nothing())));
+        assertThat(MaybeInt.Just(5).toOptional(), is(equalTo(OptionalInt.of(5))));
+        assertThat(MaybeInt.Nothing().toOptional(), is(equalTo(OptionalInt.empty())));
+    }
+}
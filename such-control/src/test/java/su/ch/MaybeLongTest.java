@@ -0,0 +1,49 @@
+package su.ch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.OptionalLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+class MaybeLongTest {
+
+    @Test void justShouldMapAndFlatMap() {
+
+        MaybeLong maybe = MaybeLong.Just(3L)
+                .map(v -> v * 7L)
+                .flatMap(v -> MaybeLong.Just(v + 1L));
+
+        assertThat(maybe, is(equalTo(MaybeLong.Just(22L))));
+    }
+
+    @Test void nothingShouldShortCircuit() {
+
+        MaybeLong maybe = MaybeLong.Just(3L)
+                .flatMap(v -> MaybeLong.Nothing())
+                .map(v -> v * 7L);
+
+        assertThat(maybe, is(sameInstance(MaybeLong.Nothing())));
+        assertThat(maybe.orElse(-1L), is(equalTo(-1L)));
+        assertThat(maybe.orElseGet(() -> 3L), is(equalTo(3L)));
+    }
+
+    @Test void shouldConvertToAndFromMaybe() {
+
+        assertThat(MaybeLong.fromMaybe(Maybe.Just(5L)), is(equalTo(MaybeLong.Just(5L))));
+        assertThat(MaybeLong.fromMaybe(Maybe.Nothing()), is(equalTo(MaybeLong.Nothing())));
+        assertThat(MaybeLong.Just(5L).toMaybe(), is(equalTo(Maybe.Just(5L))));
+        assertThat(MaybeLong.Nothing().toMaybe(), is(equalTo(Maybe.Nothing())));
+    }
+
+    @Test void shouldConvertToAndFromOptional() {
+
+        assertThat(MaybeLong.fromOptional(OptionalLong.of(5L)), is(equalTo(MaybeLong.Just(5L))));
+        assertThat(MaybeLong.fromOptional(OptionalLong.empty()), is(equalTo(MaybeLong.Nothing())));
+        assertThat(MaybeLong.Just(5L).toOptional(), is(equalTo(OptionalLong.of(5L))));
+        assertThat(MaybeLong.Nothing().toOptional(), is(equalTo(OptionalLong.empty())));
+    }
+}
@@ -1,12 +1,26 @@
 package su.ch;
 
+import com.google.common.collect.ImmutableList;
 import org.hamcrest.MatcherAssert;
 import org.junit.jupiter.api.Test;
 import su.ch.framework.Monad;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.sameInstance;
 
 class MaybeTest {
 
@@ -28,4 +42,106 @@ class MaybeTest {
         assertThat(Maybe.Just("three"), is(equalTo(justThree)));
     }
 
+    @Test void nothingShouldBeASingleton() {
+
+        Maybe<Integer> nothing = Maybe.Nothing();
+        Maybe<String> other = Maybe.Nothing();
+
+        assertThat(other, is(sameInstance(nothing)));
+        assertThat(Maybe.Just(null), is(sameInstance(nothing)));
+        assertThat(nothing.map((Integer i) -> i + 3), is(sameInstance(nothing)));
+        assertThat(nothing.flatMap(Maybe::Just), is(sameInstance(nothing)));
+        assertThat(nothing.apply(Maybe.Just(5)), is(sameInstance(nothing)));
+    }
+
+    @Test void justShouldMapLikeApply() {
+
+        Maybe<Integer> three = Maybe.Just(3);
+
+        Function<Integer, Integer> addFive = i -> i + 5;
+
+        assertThat(three.map(addFive), is(equalTo(Maybe.Just(addFive).apply(three))));
+        assertThat(three.map((Integer i) -> i + 5), is(equalTo(Maybe.Just(8))));
+    }
+
+    @Test void sequenceShouldCollectJusts() {
+
+        assertThat(Maybe.sequence(ImmutableList.of(Maybe.Just(3), Maybe.Just(5))), is(equalTo(Maybe.Just(ImmutableList.of(3, 5)))));
+        assertThat(Maybe.sequence(ImmutableList.of(Maybe.Just(3), Maybe.Nothing())), is(equalTo(Maybe.Nothing())));
+    }
+
+    @Test void parallelTraverseShouldSkipRemainingItemsAfterNothing() {
+
+        List<Integer> items = new ArrayList<>();
+        for (int i = 0; i < 1_000_000; i++) {
+            items.add(i);
+        }
+        AtomicInteger calls = new AtomicInteger();
+        ForkJoinPool pool = new ForkJoinPool(4);
+
+        try {
+            Maybe<List<Integer>> traversed = Maybe.traverse(items, i -> {
+                calls.incrementAndGet();
+                return i == 10 ? Maybe.Nothing() : Maybe.Just(i);
+            }, pool);
+
+            assertThat(traversed, is(equalTo(Maybe.Nothing())));
+            assertThat(calls.get(), is(lessThan(items.size())));
+            assertThat(Maybe.traverse(items, Maybe::Just, pool), is(equalTo(Maybe.Just(items))));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test void zipParShouldCombineJusts() throws Exception {
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            Maybe<String> zipped = Maybe.<Integer, String, String>zipPar(() -> Maybe.Just(3), () -> Maybe.Just("V"), (i, s) -> i + s, executor)
+                    .toCompletableFuture()
+                    .get();
+
+            assertThat(zipped, is(equalTo(Maybe.Just("3V"))));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test void mapNShouldCompleteAsSoonAsOneIsNothing() throws Exception {
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        List<Supplier<Maybe<Integer>>> suppliers = ImmutableList.of(
+                () -> Maybe.Just(1),
+                () -> {
+                    try {
+                        started.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return Maybe.Nothing();
+                },
+                () -> {
+                    try {
+                        started.countDown();
+                        Thread.sleep(60_000);
+                    } catch (InterruptedException e) {
+                        interrupted.countDown();
+                    }
+                    return Maybe.Just(3);
+                });
+
+        try {
+            Maybe<Integer> zipped = Maybe.<Integer, Integer>mapN(suppliers, values -> values.size(), executor)
+                    .toCompletableFuture()
+                    .get(10, TimeUnit.SECONDS);
+
+            assertThat(zipped, is(equalTo(Maybe.Nothing())));
+            assertThat(interrupted.await(10, TimeUnit.SECONDS), is(true));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 }
@@ -0,0 +1,126 @@
+package su.ch;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.sameInstance;
+
+class RetryPolicyTest {
+
+    private static final Duration oneMilli = Duration.ofMillis(1);
+
+    @Test void actionShouldBeRetriedUntilItSucceeds() {
+
+        AtomicInteger attempts = new AtomicInteger();
+
+        boolean success = Try.with(3)
+                .doAction(v -> { if (attempts.incrementAndGet() < 3) throw new IllegalStateException(); return v; },
+                        RetryPolicy.fixed(oneMilli))
+                .isSuccess();
+
+        assertThat(success, is(true));
+        assertThat(attempts.get(), is(equalTo(3)));
+    }
+
+    @Test void attemptsShouldBeReportedForEveryRetriedStage() {
+
+        AtomicInteger attempts = new AtomicInteger();
+        TryMetrics metrics = new TryMetrics();
+
+        boolean success = Try.with(3, metrics)
+                .doAction(v -> v)
+                .doAction(v -> { if (attempts.incrementAndGet() < 3) throw new IllegalStateException(); return v; },
+                        RetryPolicy.fixed(oneMilli))
+                .isSuccess();
+
+        assertThat(success, is(true));
+        assertThat(metrics.stage(0).retries(), is(equalTo(0L)));
+        assertThat(metrics.stage(1).retries(), is(equalTo(2L)));
+        assertThat(metrics.stage(1).retryElapsed(), is(greaterThanOrEqualTo(Duration.ofMillis(2))));
+    }
+
+    @Test void exhaustedRetriesShouldFallThroughToRecovery() {
+
+        IllegalStateException thrown = new IllegalStateException("VIII");
+        AtomicInteger attempts = new AtomicInteger();
+        AtomicReference<Exception> recovered = new AtomicReference<>();
+
+        boolean success = Try.with(3)
+                .doAction(v -> { attempts.incrementAndGet(); throw thrown; },
+                        RetryPolicy.fixed(oneMilli).withMaxAttempts(4))
+                .orRecover((e, v) -> { recovered.set(e); return v; })
+                .isSuccess();
+
+        RetryPolicy.Exhausted exhausted = (RetryPolicy.Exhausted) recovered.get();
+        assertThat(success, is(false));
+        assertThat(attempts.get(), is(equalTo(4)));
+        assertThat(exhausted.getAttempts(), is(equalTo(4)));
+        assertThat(exhausted.getCause(), is(sameInstance(thrown)));
+        assertThat(exhausted.getElapsed(), is(greaterThanOrEqualTo(Duration.ofMillis(3))));
+    }
+
+    @Test void budgetShouldLimitRetries() {
+
+        AtomicInteger attempts = new AtomicInteger();
+        AtomicReference<Exception> recovered = new AtomicReference<>();
+
+        Try.with(3)
+                .doAction(v -> { attempts.incrementAndGet(); throw new IllegalStateException(); },
+                        RetryPolicy.fixed(Duration.ofMillis(20)).withMaxAttempts(100).withBudget(Duration.ofMillis(50)))
+                .orRecover((e, v) -> { recovered.set(e); return v; })
+                .isSuccess();
+
+        RetryPolicy.Exhausted exhausted = (RetryPolicy.Exhausted) recovered.get();
+        assertThat(attempts.get(), is(lessThanOrEqualTo(3)));
+        assertThat(exhausted.remaining(), is(lessThanOrEqualTo(Duration.ofMillis(20))));
+    }
+
+    @Test void unretryableFailuresShouldFailAtOnce() {
+
+        AtomicInteger attempts = new AtomicInteger();
+        AtomicReference<Exception> recovered = new AtomicReference<>();
+
+        Try.with(3)
+                .doAction(v -> { attempts.incrementAndGet(); throw new IllegalArgumentException(); },
+                        RetryPolicy.fixed(oneMilli).retryingOn(e -> e instanceof IllegalStateException))
+                .orRecover((e, v) -> { recovered.set(e); return v; })
+                .isSuccess();
+
+        assertThat(attempts.get(), is(equalTo(1)));
+        assertThat(recovered.get(), is(instanceOf(IllegalArgumentException.class)));
+    }
+
+    @Test void exponentialDelaysShouldDoubleUpToTheMaximum() {
+
+        RetryPolicy policy = RetryPolicy.exponential(oneMilli, Duration.ofMillis(5));
+
+        assertThat(policy.delay(1, Duration.ZERO), is(equalTo(oneMilli)));
+        assertThat(policy.delay(2, Duration.ZERO), is(equalTo(Duration.ofMillis(2))));
+        assertThat(policy.delay(3, Duration.ZERO), is(equalTo(Duration.ofMillis(4))));
+        assertThat(policy.delay(4, Duration.ZERO), is(equalTo(Duration.ofMillis(5))));
+        assertThat(policy.delay(100, Duration.ZERO), is(equalTo(Duration.ofMillis(5))));
+    }
+
+    @Test void jitteredDelaysShouldStayWithinBounds() {
+
+        RetryPolicy policy = RetryPolicy.decorrelatedJitter(oneMilli, Duration.ofMillis(50));
+        Duration delay = Duration.ZERO;
+
+        for (int attempt = 1; attempt < 1_000; attempt++) {
+            Duration next = policy.delay(attempt, delay);
+            assertThat(next, is(greaterThanOrEqualTo(oneMilli)));
+            assertThat(next, is(lessThanOrEqualTo(Duration.ofMillis(50))));
+            assertThat(next, is(lessThanOrEqualTo(delay.multipliedBy(3).plus(oneMilli.multipliedBy(3)))));
+            delay = next;
+        }
+    }
+}
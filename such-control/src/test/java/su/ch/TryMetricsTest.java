@@ -0,0 +1,93 @@
+package su.ch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+class TryMetricsTest {
+
+    private static Try<Integer> pipeline(int value, TryMetrics metrics) {
+
+        return Try.with(value, metrics)
+                .doAction(v -> v)
+                .orRecover((e, v) -> v)
+                .doAction(v -> { if (v % 2 == 0) throw new IllegalStateException(); return v; })
+                .orRecover((e, v) -> { throw new IllegalArgumentException(); })
+                .doAction(v -> v);
+    }
+
+    @Test void metricsShouldCountEachStage() {
+
+        TryMetrics metrics = new TryMetrics();
+
+        for (int i = 0; i < 10; i++) {
+            pipeline(i, metrics).isSuccess();
+        }
+
+        assertThat(metrics.stage(0).runs(), is(equalTo(10L)));
+        assertThat(metrics.stage(0).recoveries(), is(equalTo(5L)));
+        assertThat(metrics.stage(1).runs(), is(equalTo(10L)));
+        assertThat(metrics.stage(1).failures(), is(equalTo(5L)));
+        assertThat(metrics.stage(1).failureRate(), is(equalTo(0.5)));
+        assertThat(metrics.stage(1).recoveryFailures(), is(equalTo(5L)));
+        assertThat(metrics.stage(2).runs(), is(equalTo(5L)));
+        assertThat(metrics.stage(2).failures(), is(equalTo(0L)));
+    }
+
+    @Test void metricsShouldCountExceptionTypes() {
+
+        TryMetrics metrics = new TryMetrics();
+
+        pipeline(2, metrics).isSuccess();
+
+        assertThat(metrics.stage(1).failureTypes().get(IllegalStateException.class), is(equalTo(1L)));
+        assertThat(metrics.stage(1).failureTypes().get(IllegalArgumentException.class), is(equalTo(1L)));
+    }
+
+    @Test void metricsShouldBeRecordedConcurrently() {
+
+        TryMetrics metrics = new TryMetrics();
+        List<Try<Integer>> tries = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            tries.add(pipeline(i, metrics));
+        }
+
+        Try.runAll(tries, 4);
+
+        assertThat(metrics.stage(0).runs(), is(equalTo(10_000L)));
+        assertThat(metrics.stage(1).failures(), is(equalTo(5_000L)));
+    }
+
+    @Test void registeredListenerShouldObserveEveryTry() {
+
+        TryMetrics metrics = new TryMetrics();
+        Try.setListener(metrics);
+        try {
+            Try.with(1).doAction(v -> v).isSuccess();
+        } finally {
+            Try.setListener(TryListener.NONE);
+        }
+        Try.with(1).doAction(v -> v).isSuccess();
+
+        assertThat(metrics.stage(0).runs(), is(equalTo(1L)));
+    }
+
+    @Test void defaultListenerShouldRecordNothing() throws Exception {
+
+        Try<Integer> outcome = AsyncTry.with(1)
+                .doAction(v -> { throw new IllegalStateException(); })
+                .orRecover((e, v) -> { throw new IllegalArgumentException(); })
+                .toCompletionStage()
+                .toCompletableFuture()
+                .get();
+
+        assertThat(Try.getListener(), is(sameInstance(TryListener.NONE)));
+        assertThat(((Try.Failure<Integer>) outcome).getRecoveryFailures().size(), is(equalTo(1)));
+    }
+}
@@ -4,9 +4,28 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InOrder;
 import org.mockito.Mockito;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertTimeout;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 class TryTest {
@@ -95,6 +114,215 @@ class TryTest {
         verify(mockReceiver, never()).method2();
     }
 
+    @Test void outcomeShouldBeComputedOnce() {
+
+        Receiver mockReceiver = spy(new Receiver());
+        Finisher mockFinisher = spy(new Finisher());
+
+        Try<Receiver> attempt = Try.with(mockReceiver)
+                .doAction(Receiver::method1)
+                .doAction(Receiver::method2);
+
+        attempt.isSuccess();
+        attempt.ifSuccessful(mockFinisher::success);
+        attempt.ifFailed(mockFinisher::failed);
+
+        verify(mockReceiver, times(1)).method1();
+        verify(mockReceiver, times(1)).method2();
+        verify(mockFinisher, times(1)).success(mockReceiver);
+        verify(mockFinisher, never()).failed(any());
+    }
+
+    @Test void failureShouldOnlyRecoverActionsAlreadyRun() {
+
+        Receiver mockReceiver = spy(new Receiver());
+
+        Try.with(mockReceiver)
+                .doAction(Receiver::throwsException)
+                .orRecover((t, v) -> v.recover(t))
+                .doAction(Receiver::method1)
+                .orRecover((t, v) -> v.method2())
+                .isSuccess();
+
+        verify(mockReceiver).recover(any(Throwable.class));
+        verify(mockReceiver, never()).method1();
+        verify(mockReceiver, never()).method2();
+    }
+
+    @Test void runAllShouldPartitionOutcomes() {
+
+        AtomicInteger calls = new AtomicInteger();
+        List<Try<Integer>> tries = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            tries.add(Try.with(i)
+                    .doAction(v -> calls.incrementAndGet())
+                    .doAction(v -> { if (v % 10 == 0) throw new IllegalArgumentException(); return v; }));
+        }
+
+        Pair<List<Try.Failure<Integer>>, List<Try<Integer>>> outcomes = Try.runAll(tries, 4);
+
+        assertThat(calls.get(), is(equalTo(10_000)));
+        assertThat(outcomes.getLeft().size(), is(equalTo(1_000)));
+        assertThat(outcomes.getRight().size(), is(equalTo(9_000)));
+        assertThat(outcomes.getLeft().get(1).get(), is(equalTo(10)));
+        assertThat(outcomes.getRight().get(0).get(), is(equalTo(1)));
+    }
+
+    @Test void runAllShouldUseTheGivenPool() {
+
+        ForkJoinPool pool = new ForkJoinPool(2);
+        List<Try<Integer>> tries = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            tries.add(Try.with(i).doAction(v -> { assertThat(ForkJoinTask.getPool(), is(pool)); return v; }));
+        }
+
+        assertThat(Try.runAll(tries, pool).getRight().size(), is(equalTo(100)));
+        pool.shutdown();
+    }
+
+    @Test void returnedSignalShouldFailWithoutThrowing() {
+
+        Try.Signal signal = new Try.Signal("VIII");
+        AtomicReference<Exception> recovered = new AtomicReference<>();
+
+        boolean success = Try.with(3)
+                .doAction(v -> signal)
+                .orRecover((e, v) -> { recovered.set(e); return v; })
+                .isSuccess();
+
+        assertThat(success, is(false));
+        assertThat(recovered.get(), is(sameInstance(signal)));
+        assertThat(signal.getStackTrace().length, is(equalTo(0)));
+    }
+
+    @Test void doAttemptShouldFailOnLeft() {
+
+        AtomicReference<Exception> recovered = new AtomicReference<>();
+
+        boolean success = Try.with(3)
+                .doAttempt(v -> v > 2 ? Either.Left("too big") : Either.Right(v))
+                .orRecover((e, v) -> { recovered.set(e); return v; })
+                .isSuccess();
+
+        assertThat(success, is(false));
+        assertThat(((Try.Signal) recovered.get()).getReason(), is(equalTo("too big")));
+    }
+
+    @Test void doAttemptShouldSucceedOnRight() {
+
+        assertThat(Try.with(1).doAttempt(Either::Right).isSuccess(), is(true));
+    }
+
+    @Test void recoveryFailureShouldBeReportedWithoutChangingTheActionFailure() throws Exception {
+
+        IllegalStateException thrown = new IllegalStateException("I");
+        AtomicInteger recoveries = new AtomicInteger();
+        TryMetrics metrics = new TryMetrics();
+
+        boolean success = Try.with(3, metrics)
+                .doAction(v -> v)
+                .orRecover((e, v) -> recoveries.incrementAndGet())
+                .doAction(v -> { throw thrown; })
+                .orRecover((e, v) -> { throw new IllegalArgumentException("II"); })
+                .isSuccess();
+        Try<Integer> outcome = AsyncTry.with(3)
+                .doAction(v -> { throw thrown; })
+                .orRecover((e, v) -> { throw new IllegalArgumentException("III"); })
+                .toCompletionStage()
+                .toCompletableFuture()
+                .get();
+
+        assertThat(success, is(false));
+        assertThat(recoveries.get(), is(equalTo(1)));
+        assertThat(metrics.stage(1).recoveryFailures(), is(equalTo(1L)));
+        assertThat(thrown.getSuppressed().length, is(equalTo(0)));
+        assertThat(((Try.Failure<Integer>) outcome).getRecoveryFailures().get(0).getMessage(), is(equalTo("III")));
+    }
+
+    @Test void timedActionShouldFailWhenItsExecutorIsSaturated() {
+
+        AtomicReference<Exception> recovered = new AtomicReference<>();
+        Executor saturated = task -> { throw new RejectedExecutionException(); };
+
+        boolean success = Try.with(3)
+                .within(Duration.ofSeconds(5), saturated)
+                .doAction(v -> v)
+                .orRecover((e, v) -> { recovered.set(e); return v; })
+                .isSuccess();
+
+        assertThat(success, is(false));
+        assertThat(recovered.get(), is(instanceOf(RejectedExecutionException.class)));
+        assertThat(Try.timeLimitedThreads, is(greaterThanOrEqualTo(64)));
+    }
+
+    @Test void overrunningActionShouldBeAbandoned() {
+
+        CountDownLatch interrupted = new CountDownLatch(1);
+        AtomicReference<Exception> recovered = new AtomicReference<>();
+
+        boolean success = Try.with(3)
+                .doAction(v -> {
+                    try {
+                        Thread.sleep(10_000);
+                    } catch (InterruptedException e) {
+                        interrupted.countDown();
+                    }
+                    return v;
+                }, Duration.ofMillis(20))
+                .orRecover((e, v) -> { recovered.set(e); return v; })
+                .isSuccess();
+
+        assertThat(success, is(false));
+        assertThat(((Try.TimedOut) recovered.get()).getLimit(), is(equalTo(Duration.ofMillis(20))));
+        assertTimeout(Duration.ofSeconds(5), () -> interrupted.await());
+    }
+
+    @Test void timedActionShouldFailWithItsOwnException() {
+
+        IllegalStateException thrown = new IllegalStateException();
+        AtomicReference<Exception> recovered = new AtomicReference<>();
+
+        Try.with(3)
+                .doAction(v -> { throw thrown; }, Duration.ofSeconds(5))
+                .orRecover((e, v) -> { recovered.set(e); return v; })
+                .isSuccess();
+
+        assertThat(recovered.get(), is(sameInstance(thrown)));
+    }
+
+    @Test void deadlineShouldBoundEveryAction() {
+
+        AtomicInteger calls = new AtomicInteger();
+        AtomicReference<Exception> recovered = new AtomicReference<>();
+
+        boolean success = Try.with(30L)
+                .within(Duration.ofMillis(100))
+                .doAction(v -> { calls.incrementAndGet(); return sleep(v); })
+                .orRecover((e, v) -> { recovered.set(e); return v; })
+                .doAction(v -> { calls.incrementAndGet(); return sleep(v); })
+                .doAction(v -> { calls.incrementAndGet(); return sleep(v * 100); })
+                .doAction(v -> calls.incrementAndGet())
+                .isSuccess();
+
+        assertThat(success, is(false));
+        assertThat(calls.get(), is(equalTo(3)));
+        assertThat(((Try.TimedOut) recovered.get()).getLimit(), is(equalTo(Duration.ofMillis(100))));
+    }
+
+    @Test void actionsWithinTheDeadlineShouldSucceed() {
+
+        assertThat(Try.with(1L).within(Duration.ofSeconds(5)).doAction(TryTest::sleep).isSuccess(), is(true));
+    }
+
+    private static long sleep(long millis) {
+
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return millis;
+    }
 
     class Receiver {
 
@@ -0,0 +1,77 @@
+package su.ch;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.jupiter.api.Test;
+import su.ch.Validated.Errors;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+class ValidatedTest {
+
+    @Test void combineShouldAccumulateErrors() {
+
+        Validated<Errors<String>, String> name = Validated.Invalid(Errors.of("name"));
+        Validated<Errors<String>, Integer> age = Validated.Invalid(Errors.of("age"));
+
+        Validated<Errors<String>, String> person = name.combine(age, (n, a) -> n + a);
+
+        assertThat(person, is(equalTo(Validated.Invalid(new Errors<>(ImmutableList.of("name", "age"))))));
+    }
+
+    @Test void combineShouldApplyCombinerToValidValues() {
+
+        Validated<Errors<String>, String> name = Validated.Valid("Tom");
+        Validated<Errors<String>, Integer> age = Validated.Valid(42);
+
+        assertThat(name.combine(age, (n, a) -> n + a), is(equalTo(Validated.Valid("Tom42"))));
+    }
+
+    @Test void applyShouldAccumulateErrors() {
+
+        Validated<Errors<String>, ?> validated = Validated.<Errors<String>, Object>Invalid(Errors.of("I"))
+                .apply(Validated.Invalid(Errors.of("II")));
+
+        assertThat(validated, is(equalTo(Validated.Invalid(new Errors<>(ImmutableList.of("I", "II"))))));
+    }
+
+    @Test void mapShouldApplyToValidValues() {
+
+        assertThat(Validated.Valid(3).map((Integer i) -> i + 5), is(equalTo(Validated.Valid(8))));
+    }
+
+    @Test void sequenceShouldCollectEveryError() {
+
+        List<Validated<Errors<String>, Integer>> validateds = ImmutableList.of(
+                Validated.Valid(1), Validated.Invalid(Errors.of("II")), Validated.Valid(3), Validated.Invalid(Errors.of("IV")));
+
+        Validated<Errors<String>, List<Integer>> sequenced = Validated.sequence(validateds);
+
+        assertThat(sequenced.fold(Errors::toList, values -> values), contains("II", "IV"));
+    }
+
+    @Test void sequenceShouldCollectEveryValue() {
+
+        List<Validated<Errors<String>, Integer>> validateds = ImmutableList.of(Validated.Valid(1), Validated.Valid(2));
+
+        assertThat(Validated.sequence(validateds), is(equalTo(Validated.Valid(ImmutableList.of(1, 2)))));
+    }
+
+    @Test void toValidatedShouldCombineInParallel() {
+
+        List<Validated<Errors<Integer>, Integer>> validateds = new ArrayList<>(200_000);
+        for (int i = 0; i < 200_000; i++) {
+            validateds.add(i % 7 == 0 ? Validated.Invalid(Errors.of(i)) : Validated.Valid(i));
+        }
+
+        Validated<Errors<Integer>, List<Integer>> parallel = validateds.parallelStream().collect(Validated.toValidated());
+
+        assertThat(parallel, is(equalTo(Validated.sequence(validateds))));
+        assertThat(parallel.fold(Errors::getSize, List::size), is(equalTo(200_000 / 7 + 1)));
+    }
+}
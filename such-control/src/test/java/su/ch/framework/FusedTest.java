@@ -0,0 +1,71 @@
+package su.ch.framework;
+
+import org.junit.jupiter.api.Test;
+import su.ch.Either;
+import su.ch.Maybe;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+class FusedTest {
+
+    @Test void firstFunctorLaw_Identity() {
+
+        Maybe<Integer> three = Maybe.Just(3);
+
+        assertThat(three.fused().map(Function.identity()).materialize(), is(equalTo(three)));
+    }
+
+    @Test void secondFunctorLaw_Composition() {
+
+        Function<Integer, Integer> addFive = i -> i + 5;
+        Function<Integer, String> show = String::valueOf;
+        Maybe<Integer> three = Maybe.Just(3);
+
+        assertThat(three.fused().map(addFive).map(show).materialize(), is(equalTo(three.map(addFive.andThen(show)))));
+        assertThat(three.fused().map(addFive).map(show), is(equalTo(three.fused().map(addFive.andThen(show)))));
+    }
+
+    @Test void mappersShouldNotRunUntilMaterialized() {
+
+        AtomicInteger calls = new AtomicInteger();
+
+        Fused<Integer, ?> fused = Maybe.Just(3).fused()
+                .map((Integer i) -> { calls.incrementAndGet(); return i + 1; })
+                .map((Integer i) -> { calls.incrementAndGet(); return i * 2; });
+
+        assertThat(calls.get(), is(equalTo(0)));
+        assertThat(fused.get(), is(equalTo(8)));
+        assertThat(fused.get(), is(equalTo(8)));
+        assertThat(calls.get(), is(equalTo(2)));
+    }
+
+    @Test void chainsShouldBeIndependent() {
+
+        Fused<Integer, ?> three = Maybe.Just(3).fused();
+
+        assertThat(three.map((Integer i) -> i + 1).get(), is(equalTo(4)));
+        assertThat(three.map((Integer i) -> i * 2).get(), is(equalTo(6)));
+        assertThat(three.get(), is(equalTo(3)));
+    }
+
+    @Test void nothingShouldStayNothing() {
+
+        Fused<Integer, ?> nothing = Maybe.<Integer>Nothing().fused().map((Integer i) -> i + 1);
+
+        assertThat(nothing.materialize(), is(equalTo(Maybe.Nothing())));
+    }
+
+    @Test void flatMapShouldMaterialize() {
+
+        Monad<?, ?> result = Either.<String, Integer>Right(3).fused()
+                .map((Integer i) -> i + 5)
+                .flatMap(i -> Either.Right(i * 2));
+
+        assertThat(result, is(equalTo(Either.Right(16))));
+    }
+}
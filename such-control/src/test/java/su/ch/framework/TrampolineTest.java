@@ -0,0 +1,83 @@
+package su.ch.framework;
+
+import org.junit.jupiter.api.Test;
+import su.ch.Either;
+import su.ch.Maybe;
+import su.ch.Try;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+class TrampolineTest {
+
+    private static Trampoline<Maybe<Integer>> countdown(int n) {
+
+        return n == 0
+                ? Trampoline.done(Maybe.Just(0))
+                : Maybe.Just(n - 1).flatMapLater(TrampolineTest::countdown);
+    }
+
+    private static Trampoline<Long> sum(long n) {
+
+        // not a tail call: each step maps over the result of the next
+        return n == 0
+                ? Trampoline.done(0L)
+                : Trampoline.suspend(() -> sum(n - 1)).map(s -> s + n);
+    }
+
+    @Test void flatMapLaterShouldRunInConstantStack() {
+
+        assertThat(countdown(1_000_000).run(), is(equalTo(Maybe.Just(0))));
+    }
+
+    @Test void nestedBindsShouldRunInConstantStack() {
+
+        assertThat(sum(1_000_000).run(), is(equalTo(500_000_500_000L)));
+    }
+
+    @Test void longChainsOfMapsShouldRunInConstantStack() {
+
+        Trampoline<Integer> trampoline = Trampoline.done(0);
+        for (int i = 0; i < 1_000_000; i++) {
+            trampoline = trampoline.map(n -> n + 1).flatMap(n -> Trampoline.done(n * 1));
+        }
+
+        assertThat(trampoline.run(), is(equalTo(1_000_000)));
+    }
+
+    @Test void nothingShouldShortCircuit() {
+
+        AtomicInteger calls = new AtomicInteger();
+
+        Maybe<Integer> nothing = Maybe.<Integer>Nothing()
+                .flatMapLater(i -> { calls.incrementAndGet(); return countdown(i); })
+                .run();
+
+        assertThat(nothing, is(equalTo(Maybe.Nothing())));
+        assertThat(calls.get(), is(equalTo(0)));
+    }
+
+    @Test void leftShouldShortCircuit() {
+
+        AtomicInteger calls = new AtomicInteger();
+
+        Either<String, Integer> left = Either.<String, Integer>Left("VIII")
+                .flatMapLater(i -> { calls.incrementAndGet(); return Trampoline.done(Either.Right(i)); })
+                .run();
+
+        assertThat(left.getError(), is(equalTo("VIII")));
+        assertThat(calls.get(), is(equalTo(0)));
+    }
+
+    @Test void tryShouldFlatMapLater() {
+
+        Try<Integer> result = Try.with(3)
+                .flatMapLater(i -> Trampoline.done(Try.with(i + 5)))
+                .run();
+
+        assertThat(result.get(), is(equalTo(8)));
+    }
+}
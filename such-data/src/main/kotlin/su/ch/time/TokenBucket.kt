@@ -0,0 +1,122 @@
+package su.ch.time
+
+import su.ch.annotation.Beta
+import su.ch.annotation.Impure
+import su.ch.annotation.Pure
+import java.time.Duration
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.locks.LockSupport
+import javax.annotation.concurrent.ThreadSafe
+
+/**
+ * A token-bucket rate limiter. Tokens are added at a steady rate, up to the size of the bucket,
+ * which is the largest burst allowed after a quiet spell, and each permit taken uses a token.
+ *
+ * The whole state of the bucket is a single atomic word: the instant, in nanoseconds from the
+ * creation of the bucket, at which the tokens already taken will have been replaced. Like a
+ * [Stopwatch.RunningStopwatch], time is read from [System.nanoTime], and tokens are refilled
+ * implicitly as it advances, so no lock is taken and nothing is allocated to take a permit.
+ */
+@ThreadSafe @Beta class TokenBucket private constructor(
+        // nanoseconds to add one token
+        private val interval: Long,
+        // the size of the bucket, in nanoseconds of refill
+        private val capacity: Long) {
+
+    private val startTime = System.nanoTime()
+
+    // the instant at which the bucket will be full again
+    private val full = AtomicLong()
+
+    /**
+     * Takes a token if there is one in the bucket, without waiting. Returns `true` if it was taken.
+     */
+    @Impure fun tryAcquire(): Boolean = tryAcquire(1)
+
+    /**
+     * Takes `permits` tokens if there are enough in the bucket, without waiting.
+     * Returns `true` if they were taken.
+     */
+    @Impure fun tryAcquire(permits: Int): Boolean {
+        val cost = cost(permits)
+        while (true) {
+            val now = now()
+            val full = full.get()
+            val next = Math.max(full, now) + cost
+            if (next - now > capacity) return false
+            if (this.full.compareAndSet(full, next)) return true
+        }
+    }
+
+    /**
+     * Takes `permits` tokens, parking the calling thread until they have been added to the
+     * bucket if there aren't enough already. Permits are handed out in the order they are asked
+     * for, so more than the size of the bucket may be acquired at once by waiting longer.
+     * The wait is not cut short by interruption; if the thread is interrupted while waiting, its
+     * interrupt status is set again before returning. Returns the time spent waiting.
+     */
+    @Impure fun acquire(permits: Int): Duration {
+        val cost = cost(permits)
+        var now: Long
+        var next: Long
+        do {
+            now = now()
+            val full = full.get()
+            next = Math.max(full, now) + cost
+        } while (!this.full.compareAndSet(full, next))
+        val wait = next - now - capacity
+        if (wait <= 0) return Duration.ZERO
+
+        val until = now + wait
+        var left = wait
+        // the interrupt flag makes parkNanos return at once, so it is cleared while waiting
+        var interrupted = false
+        while (left > 0) {
+            LockSupport.parkNanos(this, left)
+            if (Thread.interrupted()) interrupted = true
+            left = until - now()
+        }
+        if (interrupted) Thread.currentThread().interrupt()
+        return Duration.ofNanos(wait)
+    }
+
+    /**
+     * Takes a token, parking the calling thread until one is available. Returns the time spent
+     * waiting.
+     */
+    @Impure fun acquire(): Duration = acquire(1)
+
+    /**
+     * Returns the number of tokens in the bucket. This is zero while [acquire] has taken more
+     * tokens than the bucket holds and callers are waiting for them to be added.
+     */
+    @Impure fun available(): Long {
+        val now = now()
+        return Math.max(0, capacity - (Math.max(full.get(), now) - now)) / interval
+    }
+
+    /**
+     * Returns the number of permits added to the bucket each second.
+     */
+    @Pure fun rate(): Double = 1e9 / interval
+
+    private fun cost(permits: Int): Long {
+        require(permits > 0) { "permits must be positive: $permits" }
+        return permits * interval
+    }
+
+    private fun now(): Long = System.nanoTime() - startTime
+
+    companion object {
+
+        /**
+         * Creates a full bucket which adds `permitsPerSecond` tokens each second, up to `burst`.
+         */
+        @JvmStatic fun perSecond(permitsPerSecond: Double, burst: Long): TokenBucket {
+            require(permitsPerSecond > 0) { "permitsPerSecond must be positive: $permitsPerSecond" }
+            require(burst > 0) { "burst must be positive: $burst" }
+            val interval = Math.max(1L, Math.round(1e9 / permitsPerSecond))
+            return TokenBucket(interval, burst * interval)
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package su.ch.time;
+
+import org.junit.jupiter.api.Test;
+
+import su.ch.time.Stopwatch.RunningStopwatch;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+
+    @Test void fullBucketShouldAllowABurst() {
+        TokenBucket bucket = TokenBucket.perSecond(1, 5);
+        assertAll(
+                () -> assertTrue(bucket.tryAcquire(3)),
+                () -> assertTrue(bucket.tryAcquire(2)),
+                () -> assertFalse(bucket.tryAcquire()),
+                () -> assertThat(bucket.available(), is(equalTo(0L))));
+    }
+
+    @Test void tokensShouldRefillOverTime() throws InterruptedException {
+        TokenBucket bucket = TokenBucket.perSecond(100, 1);
+        assertTrue(bucket.tryAcquire());
+        assertFalse(bucket.tryAcquire());
+        Thread.sleep(20);
+        assertTrue(bucket.tryAcquire());
+    }
+
+    @Test void acquireShouldWaitForTokens() {
+        TokenBucket bucket = TokenBucket.perSecond(100, 1);
+        RunningStopwatch stopwatch = Stopwatch.runningStopwatch();
+        bucket.acquire();
+        Duration waited = bucket.acquire(2);
+        assertAll(
+                () -> assertThat(waited, is(greaterThan(Duration.ofMillis(15)))),
+                () -> assertThat(stopwatch.elapsed(), is(greaterThanOrEqualTo(waited))));
+    }
+
+    @Test void interruptedAcquireShouldWaitAndKeepTheInterrupt() {
+        TokenBucket bucket = TokenBucket.perSecond(100, 1);
+        RunningStopwatch stopwatch = Stopwatch.runningStopwatch();
+        bucket.acquire();
+        Thread.currentThread().interrupt();
+        Duration waited;
+        try {
+            waited = bucket.acquire(2);
+        } finally {
+            assertTrue(Thread.interrupted());
+        }
+        assertAll(
+                () -> assertThat(waited, is(greaterThan(Duration.ofMillis(15)))),
+                () -> assertThat(stopwatch.elapsed(), is(greaterThanOrEqualTo(waited))));
+    }
+
+    @Test void availableShouldNotBeNegativeWhileAcquireWaits() throws InterruptedException {
+        TokenBucket bucket = TokenBucket.perSecond(10, 1);
+        Thread waiter = new Thread(() -> bucket.acquire(5));
+        waiter.start();
+        while (waiter.getState() != Thread.State.TIMED_WAITING && waiter.isAlive()) {
+            Thread.yield();
+        }
+        long available = bucket.available();
+        waiter.join();
+        assertThat(available, is(equalTo(0L)));
+    }
+
+    @Test void concurrentCallersShouldNotExceedTheBurst() throws InterruptedException {
+        TokenBucket bucket = TokenBucket.perSecond(0.001, 1_000);
+        AtomicInteger acquired = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Thread thread = new Thread(() -> {
+                for (int j = 0; j < 10_000; j++) {
+                    if (bucket.tryAcquire()) acquired.incrementAndGet();
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) thread.join();
+        assertThat(acquired.get(), is(equalTo(1_000)));
+    }
+
+    @Test void rateShouldBeReported() {
+        assertThat(TokenBucket.perSecond(100_000, 1).rate(), is(equalTo(100_000.0)));
+    }
+}